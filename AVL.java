@@ -1,7 +1,15 @@
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.List;
 import java.util.LinkedList;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Your implementation of an AVL Tree.
@@ -10,6 +18,18 @@ import java.util.LinkedList;
  * @version 1.0
  */
 public class AVL<T extends Comparable<? super T>> implements AVLInterface<T> {
+
+    /**
+     * Subtrees with at most this many nodes are built or combined by a
+     * single task in the parallel bulk build and set operations, so each
+     * task does enough work to pay for its scheduling.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private static final int UNION = 0;
+    private static final int INTERSECTION = 1;
+    private static final int DIFFERENCE = 2;
+
     // DO NOT ADD OR MODIFY INSTANCE VARIABLES.
     private AVLNode<T> root;
     private int size;
@@ -42,40 +62,276 @@ public class AVL<T extends Comparable<? super T>> implements AVLInterface<T> {
         }
     }
 
+    /**
+     * Builds a perfectly balanced AVL tree from data in strictly ascending
+     * order, such as a snapshot of another tree. Every node is created once
+     * in order and has its height, balance factor and size set, so this takes
+     * O(n) time instead of the O(n log n) of adding the data one at a time.
+     *
+     * @param data the data in strictly ascending order
+     * @param count the number of items data yields
+     * @param <T> the type of data in the tree
+     * @return the new tree
+     * @throws IllegalArgumentException if data is null, count is negative,
+     * or data yields fewer than count items, a null item, or items out of
+     * order
+     */
+    static <T extends Comparable<? super T>> AVL<T> fromSorted(
+            Iterator<? extends T> data, int count) {
+        if (data == null || count < 0) {
+            throw new IllegalArgumentException("Input data is null or the "
+                    + "count is negative, please use a valid argument next "
+                    + "time.");
+        }
+        AVL<T> tree = new AVL<>();
+        Iterator<T> ascending = new Iterator<T>() {
+            private T last;
+
+            @Override
+            public boolean hasNext() {
+                return data.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!data.hasNext()) {
+                    throw new IllegalArgumentException("The data ran out "
+                            + "before count items were read.");
+                }
+                T item = data.next();
+                if (item == null
+                        || (last != null && last.compareTo(item) >= 0)) {
+                    throw new IllegalArgumentException("The data is null or "
+                            + "not in strictly ascending order.");
+                }
+                last = item;
+                return item;
+            }
+        };
+        tree.root = tree.buildSorted(ascending, count);
+        tree.size = count;
+        return tree;
+    }
+
+    /**
+     * Private recursive helper method to build a balanced subtree from the
+     * next count items of ascending data, building the left half before its
+     * root and the root before the right half so the items are consumed in
+     * order.
+     *
+     * @param data the remaining data in ascending order
+     * @param count the number of items in the subtree
+     * @return the root of the subtree, or null if count is 0
+     */
+    private AVLNode<T> buildSorted(Iterator<T> data, int count) {
+        if (count == 0) {
+            return null;
+        }
+        int leftCount = count / 2;
+        AVLNode<T> left = buildSorted(data, leftCount);
+        AVLNode<T> node = new AVLNode<>(data.next());
+        node.setLeft(left);
+        node.setRight(buildSorted(data, count - leftCount - 1));
+        updateHeightsAndBalances(node);
+        return node;
+    }
+
+    /**
+     * Builds a perfectly balanced AVL tree holding the data in the
+     * Collection. The result holds the same data as
+     * {@code new AVL<>(data)}: of data that compare as equal, only the first
+     * in the Collection's order is kept. The tree is shaped differently,
+     * though, since no rotations are involved.
+     *
+     * The data is copied to an array and sorted, unless it already is in
+     * ascending order, which is detected in a single pass. The tree is then
+     * built in O(n) with every height, balance factor and size set, for
+     * O(n log n) time overall, or O(n) if the data was already sorted.
+     *
+     * @param data the data to build the tree from
+     * @param <T> the type of data in the tree
+     * @return the new tree
+     * @throws IllegalArgumentException if data or any element in data is null
+     */
+    public static <T extends Comparable<? super T>> AVL<T> fromCollection(
+            Collection<? extends T> data) {
+        return bulkBuild(data, false);
+    }
+
+    /**
+     * Builds a perfectly balanced AVL tree holding the data in the
+     * Collection, like {@code fromCollection}, but sorts the data with
+     * {@code Arrays.parallelSort} and builds the subtrees in parallel on the
+     * common ForkJoinPool.
+     *
+     * @param data the data to build the tree from
+     * @param <T> the type of data in the tree
+     * @return the new tree
+     * @throws IllegalArgumentException if data or any element in data is null
+     */
+    public static <T extends Comparable<? super T>> AVL<T>
+            parallelFromCollection(Collection<? extends T> data) {
+        return bulkBuild(data, true);
+    }
+
+    /**
+     * Private helper method to sort, deduplicate and build a Collection of
+     * data into a balanced tree.
+     *
+     * @param data the data to build the tree from
+     * @param parallel whether to sort and build in parallel
+     * @param <T> the type of data in the tree
+     * @return the new tree
+     * @throws IllegalArgumentException if data or any element in data is null
+     */
+    private static <T extends Comparable<? super T>> AVL<T> bulkBuild(
+            Collection<? extends T> data, boolean parallel) {
+        if (data == null) {
+            throw new IllegalArgumentException("Input collection is null, "
+                    + "please use a valid argument next time.");
+        }
+        T[] items = (T[]) data.toArray(new Comparable[0]);
+        boolean sorted = true;
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] == null) {
+                throw new IllegalArgumentException("Collection contains null "
+                        + "data, please use a valid argument next time.");
+            } else if (i > 0 && items[i - 1].compareTo(items[i]) > 0) {
+                sorted = false;
+            }
+        }
+        // Both sorts are stable, so the first of any equal data stays first
+        if (!sorted && parallel) {
+            Arrays.parallelSort(items);
+        } else if (!sorted) {
+            Arrays.sort(items);
+        }
+        int count = 0;
+        for (int i = 0; i < items.length; i++) {
+            if (count == 0 || items[count - 1].compareTo(items[i]) != 0) {
+                items[count++] = items[i];
+            }
+        }
+        AVL<T> tree = new AVL<>();
+        if (parallel) {
+            tree.root = ForkJoinPool.commonPool().invoke(
+                    tree.new BuildTask(items, 0, count));
+        } else {
+            tree.root = tree.buildRange(items, 0, count);
+        }
+        tree.size = count;
+        return tree;
+    }
+
+    /**
+     * Private recursive helper method to build a balanced subtree from a
+     * range of an array of data in strictly ascending order. The middle
+     * item becomes the root, with the items before and after it as its left
+     * and right subtrees.
+     *
+     * @param items the data in strictly ascending order
+     * @param from the index of the first item of the range
+     * @param to the index after the last item of the range
+     * @return the root of the subtree, or null if the range is empty
+     */
+    private AVLNode<T> buildRange(T[] items, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = from + (to - from) / 2;
+        AVLNode<T> node = new AVLNode<>(items[mid]);
+        node.setLeft(buildRange(items, from, mid));
+        node.setRight(buildRange(items, mid + 1, to));
+        updateHeightsAndBalances(node);
+        return node;
+    }
+
     @Override
     public void add(T data) {
         if (data == null) {
             throw new IllegalArgumentException("Input data is null, please "
                     + "use a valid argument next time.");
         }
-        root = addNode(data, root);
+        if (root == null) {
+            size++;
+            root = new AVLNode<>(data);
+            updateHeightsAndBalances(root);
+            return;
+        }
+        // Walk down to the empty spot for the data, recording the path
+        AVLNode<T>[] path = newPath();
+        int depth = 0;
+        AVLNode<T> node = root;
+        while (true) {
+            int compare = data.compareTo(node.getData());
+            if (compare == 0) {
+                // The data is already in the tree
+                return;
+            }
+            path[depth++] = node;
+            AVLNode<T> next = compare > 0 ? node.getRight() : node.getLeft();
+            if (next == null) {
+                size++;
+                AVLNode<T> newNode = new AVLNode<>(data);
+                updateHeightsAndBalances(newNode);
+                if (compare > 0) {
+                    node.setRight(newNode);
+                } else {
+                    node.setLeft(newNode);
+                }
+                break;
+            }
+            node = next;
+        }
+        retrace(path, depth);
     }
 
     /**
-     * Private recursive helper method to add a node to the AVL tree,
-     * recalculating heights and rebalancing the tree as necessary.
+     * Helper method to allocate a stack large enough to hold any path from
+     * the root down to a leaf.
      *
-     * @param data the data to add to the AVL tree
-     * @param node the node currently being searched through
-     * @return the updated node if the data was added successfully
+     * @return an empty path stack
      */
-    private AVLNode<T> addNode(T data, AVLNode<T> node) {
-        if (node == null) {
-            size++;
-            AVLNode<T> newNode = new AVLNode<>(data);
-            updateHeightsAndBalances(newNode);
-            return newNode;
-        } else {
-            int compare = data.compareTo(node.getData());
-            if (compare > 0) {
-                node.setRight(addNode(data, node.getRight()));
-            } else if (compare < 0) {
-                node.setLeft(addNode(data, node.getLeft()));
-            }
+    private AVLNode<T>[] newPath() {
+        return ((AVLNode<T>[]) new AVLNode[root.getHeight() + 1]);
+    }
+
+    /**
+     * Helper method to walk back up a path after the subtree below its
+     * deepest node changed, recalculating heights and rebalancing each node
+     * on the way, and linking the rotated subtrees back into their parents.
+     *
+     * @param path the nodes from the root down, root first
+     * @param depth the number of nodes on the path
+     */
+    private void retrace(AVLNode<T>[] path, int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            AVLNode<T> node = path[i];
             // Update node height and balance factor
             updateHeightsAndBalances(node);
             // Rotate as necessary
-            return rotateTree(node);
+            AVLNode<T> subtree = rotateTree(node);
+            if (i == 0) {
+                root = subtree;
+            } else {
+                replaceChild(path[i - 1], node, subtree);
+            }
+        }
+    }
+
+    /**
+     * Helper method to replace one child of a node with another node.
+     *
+     * @param parent the node whose child is replaced
+     * @param child the current child
+     * @param replacement the node taking its place, possibly null
+     */
+    private void replaceChild(AVLNode<T> parent, AVLNode<T> child,
+                              AVLNode<T> replacement) {
+        if (parent.getLeft() == child) {
+            parent.setLeft(replacement);
+        } else {
+            parent.setRight(replacement);
         }
     }
 
@@ -148,8 +404,8 @@ public class AVL<T extends Comparable<? super T>> implements AVLInterface<T> {
     }
 
     /**
-     * Helper method to update the height and balance factor of
-     * the input node.
+     * Helper method to update the height, balance factor and subtree size
+     * of the input node.
      *
      * Height is defined as {@code max(left.height, right.height) + 1}.
      * A leaf node has a height of 0.
@@ -158,6 +414,9 @@ public class AVL<T extends Comparable<? super T>> implements AVLInterface<T> {
      * Balance factor is defined as left.height - right.height.
      * A leaf node has a balance factor of 0 given by (-1 - (-1))
      *
+     * Size is defined as {@code left.size + right.size + 1}.
+     * A null node has a size of 0.
+     *
      * @param node the node currently being updated
      * @return the height of the current node, or -1 if the node is null
      */
@@ -166,6 +425,7 @@ public class AVL<T extends Comparable<? super T>> implements AVLInterface<T> {
             if (isLeaf(node)) {
                 node.setHeight(0);
                 node.setBalanceFactor(0);
+                node.setSize(1);
             } else {
                 // Update height
                 int height;
@@ -189,6 +449,9 @@ public class AVL<T extends Comparable<? super T>> implements AVLInterface<T> {
                             - node.getRight().getHeight();
                 }
                 node.setBalanceFactor(bf);
+                // Update subtree size
+                node.setSize(sizeOf(node.getLeft()) + sizeOf(node.getRight())
+                        + 1);
             }
         }
     }
@@ -199,254 +462,778 @@ public class AVL<T extends Comparable<? super T>> implements AVLInterface<T> {
             throw new IllegalArgumentException("Input data is null, please "
                     + "use a valid argument next time.");
         }
-        AVLNode<T> dummy = new AVLNode<>(null);
-        root = removeNode(root, dummy, data);
-        size--;
-        return dummy.getData();
-    }
-
-    /**
-     * Private recursive helper method to remove a node from the AVL tree,
-     * recalculating heights and rebalancing the tree as necessary.
-     *
-     * @param data the data to remove from the AVL tree
-     * @param node the node currently being searched through
-     * @param dummy a dummy node used to store data for removal
-     * @throws java.util.NoSuchElementException if the data is not in the tree
-     * @return the updated node if the data was removed successfully
-     */
-    private AVLNode<T> removeNode(AVLNode<T> node, AVLNode<T> dummy, T data) {
+        AVLNode<T>[] path = root == null ? null : newPath();
+        int depth = 0;
+        AVLNode<T> node = root;
+        while (node != null) {
+            int compare = data.compareTo(node.getData());
+            if (compare == 0) {
+                break;
+            }
+            path[depth++] = node;
+            node = compare < 0 ? node.getLeft() : node.getRight();
+        }
         if (node == null) {
             throw new java.util.NoSuchElementException("The data " + data
                     + " does not exist in this tree. Please use a valid input "
                     + "next time.");
         }
-        int compare = data.compareTo(node.getData());
-        if (compare < 0) {
-            node.setLeft(removeNode(node.getLeft(), dummy, data));
-        } else if (compare > 0) {
-            node.setRight(removeNode(node.getRight(), dummy, data));
+        T removed = node.getData();
+        if (node.getLeft() != null && node.getRight() != null) {
+            // Replace the data with the successor's, and unlink the
+            // successor, or left most node in the right branch, instead
+            path[depth++] = node;
+            AVLNode<T> successor = node.getRight();
+            while (successor.getLeft() != null) {
+                path[depth++] = successor;
+                successor = successor.getLeft();
+            }
+            node.setData(successor.getData());
+            replaceChild(path[depth - 1], successor, successor.getRight());
         } else {
-            dummy.setData(node.getData());
-            if (isLeaf(node)) {
-                return null;
-            } else if (node.getRight() == null) {
-                return node.getLeft();
-            } else if (node.getLeft() == null) {
-                return node.getRight();
+            // Replace the node with its only child, or with null if it is a
+            // leaf
+            AVLNode<T> child = node.getLeft() != null ? node.getLeft()
+                    : node.getRight();
+            if (depth == 0) {
+                root = child;
             } else {
-                AVLNode<T> dummy2 = new AVLNode<>(null);
-                node.setRight(removeSuccessor(node.getRight(), dummy2));
-                node.setData(dummy2.getData());
+                replaceChild(path[depth - 1], node, child);
             }
         }
-        // Update node height and balance factor
-        updateHeightsAndBalances(node);
-        // Rotate as necessary
-        return rotateTree(node);
+        size--;
+        retrace(path, depth);
+        return removed;
     }
 
-    /**
-     * Helper method help remove the successor, or left most node
-     * in a right branch of the tree
-     *
-     * @param node the node being searched through currently
-     * @param dummy a dummy node used to store the data from the successor
-     * @return the node holding the largest data, or the successor
-     */
-    private AVLNode<T> removeSuccessor(AVLNode<T> node, AVLNode<T> dummy) {
-        if (node.getLeft() == null) {
-            dummy.setData(node.getData());
-            // If it has a right child, replace it with that, if the child
-            // is null then it all works out fine too
-            return node.getRight();
-        } else {
-            node.setLeft(removeSuccessor(node.getLeft(), dummy));
-            updateHeightsAndBalances(node);
-            return rotateTree(node);
+    @Override
+    public T get(T data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Input data is null, please "
+                    + "use a valid argument next time.");
+        }
+        AVLNode<T> node = findNode(data);
+        if (node == null) {
+            throw new java.util.NoSuchElementException("The data " + data
+                    + " is not contained in this tree. Consider adding that "
+                    + "data.");
         }
+        // Return the data from the found node (not the input data)
+        return node.getData();
     }
 
     @Override
-    public T get(T data) {
+    public boolean contains(T data) {
         if (data == null) {
             throw new IllegalArgumentException("Input data is null, please "
                     + "use a valid argument next time.");
-        } else {
-            return getNode(data, root);
         }
+        return findNode(data) != null;
     }
 
     /**
-     * Recursive helper method to find and get a node within the tree.
+     * Searches the tree for data equal to the input, returning null rather
+     * than throwing if there is none, so that a miss costs a single descent.
      *
-     * @param data the data to be returned if found
-     * @param node the node that is currently being searched through
-     * @throws java.util.NoSuchElementException if the input data is not found
-     * @return the data from the found node (not the input data)
+     * @param data the data being searched for
+     * @return the data from the found node (not the input data), or null if
+     * it is not in the tree
      */
-    private T getNode(T data, AVLNode<T> node) {
-        if (node != null) {
+    T find(T data) {
+        AVLNode<T> node = findNode(data);
+        return node == null ? null : node.getData();
+    }
+
+    /**
+     * Helper method to search down the tree for the node holding some
+     * particular data.
+     *
+     * @param data the data being searched for
+     * @return the node holding data equal to the input, or null if there is
+     * none
+     */
+    private AVLNode<T> findNode(T data) {
+        AVLNode<T> node = root;
+        while (node != null) {
             int compare = data.compareTo(node.getData());
             if (compare == 0) {
-                // Return the data if the it was found
-                return node.getData();
-            } else if (compare < 0) {
-                // If the data is less than the node, search the left side
-                return getNode(data, node.getLeft());
-            } else if (compare > 0) {
-                // If the data is less than the node, search the right side
-                return getNode(data, node.getRight());
+                return node;
             }
+            // Search the left side if the data is less, the right otherwise
+            node = compare < 0 ? node.getLeft() : node.getRight();
         }
-        // Throw an exception if the node is not found
-        throw new java.util.NoSuchElementException("The data " + data
-                + " is not contained in this tree. Consider adding that data.");
+        return null;
     }
 
     @Override
-    public boolean contains(T data) {
-        if (data == null) {
-            throw new IllegalArgumentException("Input data is null, please "
-                    + "use a valid argument next time.");
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the k-th smallest data in the tree, counting from 0, by
+     * following the subtree sizes down from the root. This is the data at
+     * index k of {@code inorder}, found in O(log n).
+     *
+     * @param k the index of the data in sorted order
+     * @return the data with exactly k smaller data in the tree
+     * @throws IndexOutOfBoundsException if k is negative or k >= size
+     */
+    public T select(int k) {
+        if (k < 0 || k >= size) {
+            throw new IndexOutOfBoundsException("Index is not within the "
+                    + "size of the tree: " + 0 + " to " + (size - 1));
+        }
+        AVLNode<T> node = root;
+        while (true) {
+            int leftSize = sizeOf(node.getLeft());
+            if (k < leftSize) {
+                node = node.getLeft();
+            } else if (k > leftSize) {
+                // Skip the left branch and the node itself
+                k -= leftSize + 1;
+                node = node.getRight();
+            } else {
+                return node.getData();
+            }
         }
-        return search(data, root);
     }
 
     /**
-     * Search through the tree looking for some particular data within a
-     * node.
-     * A successful search indicates that a node containing the same data
-     * as the one in question was found within the tree
+     * Counts the data in the tree that are smaller than the input, in
+     * O(log n). The input does not have to be in the tree; if it is, this
+     * is its index in sorted order.
      *
-     * @param data the data being searched for
-     * @param node the node being searched through
-     * @return whether the node was found or not
+     * @param data the data to compare against
+     * @return the number of data in the tree less than the input
+     * @throws IllegalArgumentException if data is null
      */
-    private boolean search(T data, AVLNode<T> node) {
-        if (node != null) {
+    public int rank(T data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Input data is null, please "
+                    + "use a valid argument next time.");
+        }
+        int rank = 0;
+        AVLNode<T> node = root;
+        while (node != null) {
             int compare = data.compareTo(node.getData());
-            if (compare == 0) {
-                return true;
-            } else if (compare > 0) {
-                return search(data, node.getRight());
+            if (compare > 0) {
+                // The left branch and the node itself are all smaller
+                rank += sizeOf(node.getLeft()) + 1;
+                node = node.getRight();
             } else if (compare < 0) {
-                return search(data, node.getLeft());
+                node = node.getLeft();
+            } else {
+                return rank + sizeOf(node.getLeft());
             }
         }
-        return false;
+        return rank;
     }
 
-    @Override
-    public int size() {
-        return size;
+    /**
+     * Counts the data in the tree such that lower <= data < upper, in
+     * O(log n).
+     *
+     * @param lower the inclusive lower bound of the range
+     * @param upper the exclusive upper bound of the range
+     * @return the number of data within the range
+     * @throws IllegalArgumentException if either bound is null, or lower is
+     * greater than upper
+     */
+    public int countInRange(T lower, T upper) {
+        if (lower == null || upper == null) {
+            throw new IllegalArgumentException("Input argument is null, please"
+                    + " use valid bounds next time.");
+        } else if (lower.compareTo(upper) > 0) {
+            throw new IllegalArgumentException("The lower bound is greater "
+                    + "than the upper bound, please use valid bounds next "
+                    + "time.");
+        }
+        return rank(upper) - rank(lower);
     }
 
-    @Override
-    public List<T> preorder() {
-        if (isEmpty()) {
-            return new LinkedList<>();
+    /**
+     * Joins two trees and a pivot into a single tree, in O(log n). Every
+     * data in left must be less than the pivot, and every data in right
+     * greater than it. The nodes of both trees are reused, so they are left
+     * empty afterwards.
+     *
+     * @param left the tree of data less than the pivot
+     * @param pivot the data between the two trees
+     * @param right the tree of data greater than the pivot
+     * @param <T> the type of data in the trees
+     * @return the joined tree
+     * @throws IllegalArgumentException if any argument is null, left and
+     * right are the same tree, or the data is not ordered as described
+     */
+    public static <T extends Comparable<? super T>> AVL<T> join(AVL<T> left,
+            T pivot, AVL<T> right) {
+        checkOperands(left, right);
+        if (pivot == null) {
+            throw new IllegalArgumentException("Input pivot is null, please "
+                    + "use a valid argument next time.");
+        } else if ((left.root != null
+                && extreme(left.root, false).compareTo(pivot) >= 0)
+                || (right.root != null
+                && extreme(right.root, true).compareTo(pivot) <= 0)) {
+            throw new IllegalArgumentException("The pivot does not lie "
+                    + "strictly between the two trees, please use a valid "
+                    + "argument next time.");
+        }
+        AVLNode<T> node = new AVLNode<>(pivot);
+        AVL<T> tree = new AVL<>();
+        tree.setRoot(tree.joinNodes(left.root, node, right.root));
+        left.clear();
+        right.clear();
+        return tree;
+    }
+
+    /**
+     * Splits the tree around a key, in O(log n). The data less than the key
+     * stays in this tree, and the data greater than or equal to it is moved
+     * to the returned tree.
+     *
+     * @param key the data to split around, which need not be in the tree
+     * @return a tree of the data greater than or equal to the key
+     * @throws IllegalArgumentException if key is null
+     */
+    public AVL<T> split(T key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid argument next time.");
+        }
+        Split<T> parts = splitNodes(root, key);
+        AVL<T> greater = new AVL<>();
+        if (parts.middle == null) {
+            greater.setRoot(parts.right);
         } else {
-            List<T> traversal = new LinkedList<>();
-            return preorderTraversal(root, traversal);
+            // Put the key's own node back as the minimum of the upper part
+            greater.setRoot(joinNodes(null, parts.middle, parts.right));
         }
+        setRoot(parts.left);
+        return greater;
     }
 
     /**
-     * Recursive helper method to traverse through the tree, saving each
-     * particular node to a list.
+     * Builds the union of two trees in O(m log(n / m + 1)) time, where m
+     * and n are the sizes of the smaller and larger tree. Where both trees
+     * hold equal data, the data of the first is kept. The nodes of both
+     * trees are reused, so they are left empty afterwards.
      *
-     * Preorder Traversal is defined as marking Node, Node.left, Node.right in
-     * that order.
+     * @param first the first tree
+     * @param second the second tree
+     * @param <T> the type of data in the trees
+     * @return a tree of the data in either tree
+     * @throws IllegalArgumentException if either tree is null or they are
+     * the same tree
+     */
+    public static <T extends Comparable<? super T>> AVL<T> union(
+            AVL<T> first, AVL<T> second) {
+        return setOperation(UNION, first, second, false);
+    }
+
+    /**
+     * Builds the intersection of two trees in O(m log(n / m + 1)) time,
+     * keeping the data of the first. The nodes of both trees are reused, so
+     * they are left empty afterwards.
      *
-     * @param node the node being traversed through currently
-     * @param traversal the list that the nodes are recorded in
-     * @return the list of all visited nodes
+     * @param first the first tree
+     * @param second the second tree
+     * @param <T> the type of data in the trees
+     * @return a tree of the data in both trees
+     * @throws IllegalArgumentException if either tree is null or they are
+     * the same tree
      */
-    private List<T> preorderTraversal(AVLNode<T> node, List<T> traversal) {
-        if (node != null && !isLeaf(node)) {
-            traversal.add(node.getData());
-            preorderTraversal(node.getLeft(), traversal);
-            preorderTraversal(node.getRight(), traversal);
-        } else if (node != null && isLeaf(node)) {
-            traversal.add(node.getData());
-        }
-        return traversal;
+    public static <T extends Comparable<? super T>> AVL<T> intersection(
+            AVL<T> first, AVL<T> second) {
+        return setOperation(INTERSECTION, first, second, false);
     }
 
-    @Override
-    public List<T> postorder() {
-        if (isEmpty()) {
-            return new LinkedList<>();
+    /**
+     * Builds the difference of two trees in O(m log(n / m + 1)) time. The
+     * nodes of both trees are reused, so they are left empty afterwards.
+     *
+     * @param first the tree to take data from
+     * @param second the tree of data to leave out
+     * @param <T> the type of data in the trees
+     * @return a tree of the data in the first tree but not the second
+     * @throws IllegalArgumentException if either tree is null or they are
+     * the same tree
+     */
+    public static <T extends Comparable<? super T>> AVL<T> difference(
+            AVL<T> first, AVL<T> second) {
+        return setOperation(DIFFERENCE, first, second, false);
+    }
+
+    /**
+     * Builds the union of two trees like {@code union}, combining large
+     * subtrees in parallel on the common ForkJoinPool.
+     *
+     * @param first the first tree
+     * @param second the second tree
+     * @param <T> the type of data in the trees
+     * @return a tree of the data in either tree
+     * @throws IllegalArgumentException if either tree is null or they are
+     * the same tree
+     */
+    public static <T extends Comparable<? super T>> AVL<T> parallelUnion(
+            AVL<T> first, AVL<T> second) {
+        return setOperation(UNION, first, second, true);
+    }
+
+    /**
+     * Builds the intersection of two trees like {@code intersection},
+     * combining large subtrees in parallel on the common ForkJoinPool.
+     *
+     * @param first the first tree
+     * @param second the second tree
+     * @param <T> the type of data in the trees
+     * @return a tree of the data in both trees
+     * @throws IllegalArgumentException if either tree is null or they are
+     * the same tree
+     */
+    public static <T extends Comparable<? super T>> AVL<T>
+            parallelIntersection(AVL<T> first, AVL<T> second) {
+        return setOperation(INTERSECTION, first, second, true);
+    }
+
+    /**
+     * Builds the difference of two trees like {@code difference}, combining
+     * large subtrees in parallel on the common ForkJoinPool.
+     *
+     * @param first the tree to take data from
+     * @param second the tree of data to leave out
+     * @param <T> the type of data in the trees
+     * @return a tree of the data in the first tree but not the second
+     * @throws IllegalArgumentException if either tree is null or they are
+     * the same tree
+     */
+    public static <T extends Comparable<? super T>> AVL<T>
+            parallelDifference(AVL<T> first, AVL<T> second) {
+        return setOperation(DIFFERENCE, first, second, true);
+    }
+
+    /**
+     * Private helper method to run a set operation on two trees, emptying
+     * both of them.
+     *
+     * @param operation UNION, INTERSECTION or DIFFERENCE
+     * @param first the first tree
+     * @param second the second tree
+     * @param parallel whether to combine large subtrees in parallel
+     * @param <T> the type of data in the trees
+     * @return the resulting tree
+     * @throws IllegalArgumentException if either tree is null or they are
+     * the same tree
+     */
+    private static <T extends Comparable<? super T>> AVL<T> setOperation(
+            int operation, AVL<T> first, AVL<T> second, boolean parallel) {
+        checkOperands(first, second);
+        AVL<T> tree = new AVL<>();
+        if (parallel) {
+            tree.setRoot(ForkJoinPool.commonPool().invoke(tree.new
+                    SetOperationTask(operation, first.root, second.root)));
         } else {
-            List<T> traversal = new LinkedList<>();
-            return postorderTraversal(root, traversal);
+            tree.setRoot(tree.combine(operation, first.root, second.root,
+                    false));
         }
+        first.clear();
+        second.clear();
+        return tree;
     }
 
     /**
-     * Recursive helper method to traverse through the tree, saving each
-     * particular node to a list.
+     * Private helper method to check the two trees an operation consumes.
      *
-     * Postorder Traversal is defined as marking Node.left, Node.right, Node in
-     * that order.
+     * @param first the first tree
+     * @param second the second tree
+     * @param <T> the type of data in the trees
+     * @throws IllegalArgumentException if either tree is null or they are
+     * the same tree
+     */
+    private static <T extends Comparable<? super T>> void checkOperands(
+            AVL<T> first, AVL<T> second) {
+        if (first == null || second == null) {
+            throw new IllegalArgumentException("Input tree is null, please "
+                    + "use a valid argument next time.");
+        } else if (first == second) {
+            throw new IllegalArgumentException("The two input trees are the "
+                    + "same tree, please use a valid argument next time.");
+        }
+    }
+
+    /**
+     * Private helper method to find the smallest or largest data of a
+     * subtree by following its left or right spine.
      *
-     * @param node the node being traversed through currently
-     * @param traversal the list that the nodes are recorded in
-     * @return the list of all visited nodes
+     * @param node the root of the subtree
+     * @param smallest whether to find the smallest data rather than the
+     * largest
+     * @param <T> the type of data in the subtree
+     * @return the smallest or largest data
+     */
+    private static <T extends Comparable<? super T>> T extreme(
+            AVLNode<T> node, boolean smallest) {
+        AVLNode<T> next = smallest ? node.getLeft() : node.getRight();
+        while (next != null) {
+            node = next;
+            next = smallest ? node.getLeft() : node.getRight();
+        }
+        return node.getData();
+    }
+
+    /**
+     * Private helper method to make a subtree the whole tree, recounting
+     * the size from it.
+     *
+     * @param node the new root, possibly null
+     */
+    private void setRoot(AVLNode<T> node) {
+        root = node;
+        size = sizeOf(node);
+    }
+
+    /**
+     * Private recursive helper method to join two subtrees and a pivot node
+     * between them. The shorter subtree and the pivot are hung off the
+     * spine of the taller subtree where the heights meet, and the nodes
+     * above are rebalanced on the way back up, so this takes time
+     * proportional to the difference in height.
+     *
+     * @param left the subtree of data less than the pivot, possibly null
+     * @param pivot the node holding the pivot, whose children are replaced
+     * @param right the subtree of data greater than the pivot, possibly null
+     * @return the root of the joined subtree
      */
-    private List<T> postorderTraversal(AVLNode<T> node, List<T> traversal) {
-        if (node != null && !isLeaf(node)) {
-            postorderTraversal(node.getLeft(), traversal);
-            postorderTraversal(node.getRight(), traversal);
-            traversal.add(node.getData());
-        } else if (node != null && isLeaf(node)) {
-            traversal.add(node.getData());
+    private AVLNode<T> joinNodes(AVLNode<T> left, AVLNode<T> pivot,
+                                 AVLNode<T> right) {
+        int leftHeight = left == null ? -1 : left.getHeight();
+        int rightHeight = right == null ? -1 : right.getHeight();
+        if (leftHeight > rightHeight + 1) {
+            left.setRight(joinNodes(left.getRight(), pivot, right));
+            updateHeightsAndBalances(left);
+            return rotateTree(left);
+        } else if (rightHeight > leftHeight + 1) {
+            right.setLeft(joinNodes(left, pivot, right.getLeft()));
+            updateHeightsAndBalances(right);
+            return rotateTree(right);
+        }
+        pivot.setLeft(left);
+        pivot.setRight(right);
+        updateHeightsAndBalances(pivot);
+        return pivot;
+    }
+
+    /**
+     * Private helper method to join two subtrees with no pivot between
+     * them, using the largest node of the left one as the pivot.
+     *
+     * @param left the subtree of smaller data, possibly null
+     * @param right the subtree of larger data, possibly null
+     * @return the root of the joined subtree
+     */
+    private AVLNode<T> joinPair(AVLNode<T> left, AVLNode<T> right) {
+        if (left == null) {
+            return right;
+        }
+        Split<T> parts = splitLast(left);
+        return joinNodes(parts.left, parts.middle, right);
+    }
+
+    /**
+     * Private recursive helper method to split a subtree into the data less
+     * than a key, the node holding the key if any, and the data greater
+     * than it. The parts are joined back together on the way up, so this
+     * takes O(log n) time.
+     *
+     * @param node the root of the subtree, possibly null
+     * @param key the data to split around
+     * @return the parts of the subtree
+     */
+    private Split<T> splitNodes(AVLNode<T> node, T key) {
+        if (node == null) {
+            return new Split<>(null, null, null);
+        }
+        int compare = key.compareTo(node.getData());
+        AVLNode<T> left = node.getLeft();
+        AVLNode<T> right = node.getRight();
+        if (compare < 0) {
+            Split<T> parts = splitNodes(left, key);
+            parts.right = joinNodes(parts.right, node, right);
+            return parts;
+        } else if (compare > 0) {
+            Split<T> parts = splitNodes(right, key);
+            parts.left = joinNodes(left, node, parts.left);
+            return parts;
+        }
+        node.setLeft(null);
+        node.setRight(null);
+        updateHeightsAndBalances(node);
+        return new Split<>(left, node, right);
+    }
+
+    /**
+     * Private recursive helper method to split the largest node off a
+     * subtree.
+     *
+     * @param node the root of the subtree
+     * @return the rest of the subtree as the left part, and the largest
+     * node as the middle
+     */
+    private Split<T> splitLast(AVLNode<T> node) {
+        AVLNode<T> left = node.getLeft();
+        if (node.getRight() == null) {
+            node.setLeft(null);
+            updateHeightsAndBalances(node);
+            return new Split<>(left, node, null);
+        }
+        Split<T> parts = splitLast(node.getRight());
+        parts.left = joinNodes(left, node, parts.left);
+        return parts;
+    }
+
+    /**
+     * Private recursive helper method to run a set operation on two
+     * subtrees. The second subtree is split around the root of the first,
+     * the halves are combined with the children of that root, and the two
+     * results are joined back together, with the root as the pivot if it
+     * belongs in the result.
+     *
+     * @param operation UNION, INTERSECTION or DIFFERENCE
+     * @param first the root of the first subtree, possibly null
+     * @param second the root of the second subtree, possibly null
+     * @param parallel whether to combine large subtrees in parallel
+     * @return the root of the resulting subtree
+     */
+    private AVLNode<T> combine(int operation, AVLNode<T> first,
+                               AVLNode<T> second, boolean parallel) {
+        if (first == null) {
+            return operation == UNION ? second : null;
+        } else if (second == null) {
+            return operation == INTERSECTION ? null : first;
+        }
+        boolean large = sizeOf(first) + sizeOf(second) > PARALLEL_THRESHOLD;
+        AVLNode<T> firstLeft = first.getLeft();
+        AVLNode<T> firstRight = first.getRight();
+        Split<T> parts = splitNodes(second, first.getData());
+        AVLNode<T> left;
+        AVLNode<T> right;
+        if (parallel && large) {
+            SetOperationTask task = new SetOperationTask(operation,
+                    firstLeft, parts.left);
+            task.fork();
+            right = combine(operation, firstRight, parts.right, true);
+            left = task.join();
+        } else {
+            left = combine(operation, firstLeft, parts.left, parallel);
+            right = combine(operation, firstRight, parts.right, parallel);
+        }
+        boolean inSecond = parts.middle != null;
+        if (operation == UNION || (operation == INTERSECTION) == inSecond) {
+            return joinNodes(left, first, right);
+        }
+        return joinPair(left, right);
+    }
+
+    @Override
+    public List<T> preorder() {
+        LinkedList<T> traversal = new LinkedList<>();
+        if (!isEmpty()) {
+            // Preorder marks Node, Node.left, Node.right in that order, so
+            // the right child is pushed below the left one
+            LinkedList<AVLNode<T>> stack = new LinkedList<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                AVLNode<T> node = stack.pop();
+                traversal.addLast(node.getData());
+                if (node.getRight() != null) {
+                    stack.push(node.getRight());
+                }
+                if (node.getLeft() != null) {
+                    stack.push(node.getLeft());
+                }
+            }
+        }
+        return traversal;
+    }
+
+    @Override
+    public List<T> postorder() {
+        LinkedList<T> traversal = new LinkedList<>();
+        if (!isEmpty()) {
+            // Postorder marks Node.left, Node.right, Node in that order, which
+            // is the reverse of marking Node, Node.right, Node.left
+            LinkedList<AVLNode<T>> stack = new LinkedList<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                AVLNode<T> node = stack.pop();
+                traversal.addFirst(node.getData());
+                if (node.getLeft() != null) {
+                    stack.push(node.getLeft());
+                }
+                if (node.getRight() != null) {
+                    stack.push(node.getRight());
+                }
+            }
         }
         return traversal;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The returned set is a live view of the range rather than a copy. It
+     * iterates the data in ascending order straight out of the tree with
+     * {@code rangeIterator}, answers {@code contains} with a search of the
+     * tree, and counts its size in O(log n). It cannot be modified.
+     */
     @Override
     public Set<T> threshold(T lower, T upper) {
         if (lower == null || upper == null) {
             throw new IllegalArgumentException("Input argument is null, please"
                     + " use valid bounds next time.");
         }
-        Set<T> set = new java.util.HashSet<>();
-        return thresholdSearch(lower, upper, root, set);
+        return new RangeView(lower, upper);
     }
 
     /**
-     * Private recursive helper method to traverse through the AVL tree, adding
-     * nodes' data to a set if they are within the threshold. The data are
-     * added using an inorder traversal
+     * Creates an iterator over the data within a range, in ascending order.
+     * The iterator walks the tree lazily, holding only the path to the next
+     * data, so stopping early costs nothing for the rest of the range. The
+     * tree must not be modified while the iterator is in use.
      *
-     * Applicable nodes are defined as having data such that
-     * lower < node.data < upper
+     * @param lower the lower bound of the range, or null for no lower bound
+     * @param lowerInclusive whether data equal to lower is in the range
+     * @param upper the upper bound of the range, or null for no upper bound
+     * @param upperInclusive whether data equal to upper is in the range
+     * @return an iterator over the data within the range
+     */
+    public Iterator<T> rangeIterator(T lower, boolean lowerInclusive,
+                                     T upper, boolean upperInclusive) {
+        return new RangeIterator(lower, lowerInclusive, upper, upperInclusive,
+                false);
+    }
+
+    /**
+     * Creates an iterator over the data within a range, in descending
+     * order, like {@code rangeIterator}.
      *
-     * @param lower The lower bound of the threshold
-     * @param upper The upper bound of the threshold
-     * @param node The node being traversed through currently
-     * @param set The set that is continuously added to
-     * @return a set of elements that are within the threshold
+     * @param lower the lower bound of the range, or null for no lower bound
+     * @param lowerInclusive whether data equal to lower is in the range
+     * @param upper the upper bound of the range, or null for no upper bound
+     * @param upperInclusive whether data equal to upper is in the range
+     * @return an iterator over the data within the range, largest first
      */
-    private Set<T> thresholdSearch(T lower, T upper, AVLNode<T> node,
-                                   Set<T> set) {
-        if (node != null) {
-            if (node.getLeft() != null
-                    && node.getLeft().getData().compareTo(lower) > 0) {
-                thresholdSearch(lower, upper, node.getLeft(), set);
-            }
-            if (node.getData().compareTo(lower) > 0
-                    && node.getData().compareTo(upper) < 0) {
-                set.add(node.getData());
-            }
-            if (node.getRight() != null
-                    && node.getRight().getData().compareTo(upper) < 0) {
-                thresholdSearch(lower, upper, node.getRight(), set);
+    public Iterator<T> descendingRangeIterator(T lower,
+            boolean lowerInclusive, T upper, boolean upperInclusive) {
+        return new RangeIterator(lower, lowerInclusive, upper, upperInclusive,
+                true);
+    }
+
+    /**
+     * Finds the smallest data in the tree.
+     *
+     * @return the smallest data
+     * @throws java.util.NoSuchElementException if the tree is empty
+     */
+    public T first() {
+        if (root == null) {
+            throw new java.util.NoSuchElementException("The tree is empty, "
+                    + "so it has no first data.");
+        }
+        return extreme(root, true);
+    }
+
+    /**
+     * Finds the largest data in the tree.
+     *
+     * @return the largest data
+     * @throws java.util.NoSuchElementException if the tree is empty
+     */
+    public T last() {
+        if (root == null) {
+            throw new java.util.NoSuchElementException("The tree is empty, "
+                    + "so it has no last data.");
+        }
+        return extreme(root, false);
+    }
+
+    /**
+     * Finds the largest data in the tree less than or equal to the input.
+     *
+     * @param data the data to compare against
+     * @return the greatest data at most the input, or null if there is none
+     * @throws IllegalArgumentException if data is null
+     */
+    public T floor(T data) {
+        return nearest(data, true, true);
+    }
+
+    /**
+     * Finds the smallest data in the tree greater than or equal to the
+     * input.
+     *
+     * @param data the data to compare against
+     * @return the least data at least the input, or null if there is none
+     * @throws IllegalArgumentException if data is null
+     */
+    public T ceiling(T data) {
+        return nearest(data, false, true);
+    }
+
+    /**
+     * Finds the largest data in the tree strictly less than the input.
+     *
+     * @param data the data to compare against
+     * @return the greatest data below the input, or null if there is none
+     * @throws IllegalArgumentException if data is null
+     */
+    public T lower(T data) {
+        return nearest(data, true, false);
+    }
+
+    /**
+     * Finds the smallest data in the tree strictly greater than the input.
+     *
+     * @param data the data to compare against
+     * @return the least data above the input, or null if there is none
+     * @throws IllegalArgumentException if data is null
+     */
+    public T higher(T data) {
+        return nearest(data, false, false);
+    }
+
+    /**
+     * Private helper method to search down the tree for the nearest data on
+     * one side of the input, remembering the best candidate seen so far.
+     *
+     * @param data the data to compare against
+     * @param below whether to look for data below the input rather than
+     * above it
+     * @param inclusive whether data equal to the input qualifies
+     * @return the nearest qualifying data, or null if there is none
+     * @throws IllegalArgumentException if data is null
+     */
+    private T nearest(T data, boolean below, boolean inclusive) {
+        if (data == null) {
+            throw new IllegalArgumentException("Input data is null, please "
+                    + "use a valid argument next time.");
+        }
+        T best = null;
+        AVLNode<T> node = root;
+        while (node != null) {
+            int compare = node.getData().compareTo(data);
+            if (compare == 0 && inclusive) {
+                return node.getData();
+            } else if (below ? compare < 0 : compare > 0) {
+                // The node qualifies, so look for a closer one past it
+                best = node.getData();
+                node = below ? node.getRight() : node.getLeft();
+            } else {
+                node = below ? node.getLeft() : node.getRight();
             }
         }
-        return set;
+        return best;
     }
 
     @Override
@@ -457,7 +1244,7 @@ public class AVL<T extends Comparable<? super T>> implements AVLInterface<T> {
     }
 
     /**
-     * Recursive helper method to traverse through the tree, saving each
+     * Helper method to traverse through the tree, saving each
      * particular node to a list with the help of a queue.
      *
      * Levelorder Traversal is defined as marking all the nodes at a single
@@ -486,6 +1273,37 @@ public class AVL<T extends Comparable<? super T>> implements AVLInterface<T> {
         return traversal;
     }
 
+    /**
+     * Creates a Spliterator over the data in the tree in sorted order. It
+     * splits by handing off subtrees, so the tree can be processed in
+     * parallel without being copied. The tree must not be modified while the
+     * spliterator is in use.
+     *
+     * @return a spliterator over the data in the tree
+     */
+    public Spliterator<T> spliterator() {
+        return new TreeSpliterator<AVLNode<T>, T>(root, size,
+                AVLNode::getLeft, AVLNode::getRight, AVLNode::getData);
+    }
+
+    /**
+     * Creates a sequential Stream of the data in the tree in sorted order.
+     *
+     * @return a stream of the data in the tree
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Creates a parallel Stream of the data in the tree in sorted order.
+     *
+     * @return a possibly parallel stream of the data in the tree
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     @Override
     public void clear() {
         root = null;
@@ -506,6 +1324,16 @@ public class AVL<T extends Comparable<? super T>> implements AVLInterface<T> {
         return root;
     }
 
+    /**
+     * Helper method to find the size of a possibly empty subtree.
+     *
+     * @param node the root of the subtree, possibly null
+     * @return the number of nodes in the subtree
+     */
+    private int sizeOf(AVLNode<T> node) {
+        return node == null ? 0 : node.getSize();
+    }
+
     /**
      * Determines whether the AVL Tree is empty, which is defined as the tree
      * having a size of 0.
@@ -527,4 +1355,305 @@ public class AVL<T extends Comparable<? super T>> implements AVLInterface<T> {
     private boolean isLeaf(AVLNode<T> node) {
         return node.getLeft() == null && node.getRight() == null;
     }
-}
\ No newline at end of file
+
+    /**
+     * A task building the balanced subtree of a range of sorted data, which
+     * forks the left half of large ranges and builds the right half itself.
+     */
+    private final class BuildTask extends RecursiveTask<AVLNode<T>> {
+        private static final long serialVersionUID = 1L;
+        private final T[] items;
+        private final int from;
+        private final int to;
+
+        /**
+         * Create a task building the subtree of a range of sorted data.
+         *
+         * @param items the data in strictly ascending order
+         * @param from the index of the first item of the range
+         * @param to the index after the last item of the range
+         */
+        private BuildTask(T[] items, int from, int to) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected AVLNode<T> compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return buildRange(items, from, to);
+            }
+            int mid = from + (to - from) / 2;
+            BuildTask left = new BuildTask(items, from, mid);
+            left.fork();
+            AVLNode<T> right = new BuildTask(items, mid + 1, to).compute();
+            AVLNode<T> node = new AVLNode<>(items[mid]);
+            node.setLeft(left.join());
+            node.setRight(right);
+            updateHeightsAndBalances(node);
+            return node;
+        }
+    }
+
+    /**
+     * The parts of a split subtree: the data less than the key, the node
+     * holding the key, and the data greater than it. Any part may be null.
+     *
+     * @param <T> the type of data in the subtree
+     */
+    private static final class Split<T extends Comparable<? super T>> {
+        private AVLNode<T> left;
+        private AVLNode<T> middle;
+        private AVLNode<T> right;
+
+        /**
+         * Create the parts of a split subtree.
+         *
+         * @param left the root of the data less than the key
+         * @param middle the node holding the key
+         * @param right the root of the data greater than the key
+         */
+        private Split(AVLNode<T> left, AVLNode<T> middle, AVLNode<T> right) {
+            this.left = left;
+            this.middle = middle;
+            this.right = right;
+        }
+    }
+
+    /**
+     * A task running a set operation on two subtrees, which forks the
+     * combination of the left halves whenever the subtrees are large.
+     */
+    private final class SetOperationTask extends RecursiveTask<AVLNode<T>> {
+        private static final long serialVersionUID = 1L;
+        private final int operation;
+        private final AVLNode<T> first;
+        private final AVLNode<T> second;
+
+        /**
+         * Create a task running a set operation on two subtrees.
+         *
+         * @param operation UNION, INTERSECTION or DIFFERENCE
+         * @param first the root of the first subtree, possibly null
+         * @param second the root of the second subtree, possibly null
+         */
+        private SetOperationTask(int operation, AVLNode<T> first,
+                                 AVLNode<T> second) {
+            this.operation = operation;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        protected AVLNode<T> compute() {
+            return combine(operation, first, second, true);
+        }
+    }
+
+    /**
+     * A lazy in-order iterator over the data of the tree within a range. It
+     * keeps the nodes whose data is still to come, with their unvisited
+     * subtrees, on an array stack as deep as the tree is tall.
+     */
+    private final class RangeIterator implements Iterator<T> {
+        private final T lower;
+        private final boolean lowerInclusive;
+        private final T upper;
+        private final boolean upperInclusive;
+        private final boolean descending;
+        private final AVLNode<T>[] stack;
+        private int top;
+        private AVLNode<T> next;
+
+        /**
+         * Create an iterator over a range, positioned before its first data.
+         *
+         * @param lower the lower bound, or null for no lower bound
+         * @param lowerInclusive whether data equal to lower is in the range
+         * @param upper the upper bound, or null for no upper bound
+         * @param upperInclusive whether data equal to upper is in the range
+         * @param descending whether to iterate from largest to smallest
+         */
+        private RangeIterator(T lower, boolean lowerInclusive, T upper,
+                              boolean upperInclusive, boolean descending) {
+            this.lower = lower;
+            this.lowerInclusive = lowerInclusive;
+            this.upper = upper;
+            this.upperInclusive = upperInclusive;
+            this.descending = descending;
+            stack = ((AVLNode<T>[]) new AVLNode[root == null ? 0
+                    : root.getHeight() + 1]);
+            // Stack the path to the start of the range, skipping the
+            // subtrees that lie entirely before it
+            AVLNode<T> node = root;
+            while (node != null) {
+                if (beforeStart(node.getData())) {
+                    node = towardsEnd(node);
+                } else {
+                    stack[top++] = node;
+                    node = towardsStart(node);
+                }
+            }
+            next = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new java.util.NoSuchElementException("There is no "
+                        + "more data in the range.");
+            }
+            T data = next.getData();
+            next = advance();
+            return data;
+        }
+
+        /**
+         * Helper method to pop the next node off the stack, stacking the
+         * path to the node after it.
+         *
+         * @return the next node within the range, or null if the range is
+         * exhausted
+         */
+        private AVLNode<T> advance() {
+            if (top == 0) {
+                return null;
+            }
+            AVLNode<T> node = stack[--top];
+            if (pastEnd(node.getData())) {
+                top = 0;
+                return null;
+            }
+            // Everything in the subtree after the node comes before the
+            // nodes still stacked
+            AVLNode<T> child = towardsEnd(node);
+            while (child != null) {
+                stack[top++] = child;
+                child = towardsStart(child);
+            }
+            return node;
+        }
+
+        /**
+         * Helper method to step from a node towards the start of the
+         * iteration order.
+         *
+         * @param node the node to step from
+         * @return the left child when ascending, the right when descending
+         */
+        private AVLNode<T> towardsStart(AVLNode<T> node) {
+            return descending ? node.getRight() : node.getLeft();
+        }
+
+        /**
+         * Helper method to step from a node towards the end of the iteration
+         * order.
+         *
+         * @param node the node to step from
+         * @return the right child when ascending, the left when descending
+         */
+        private AVLNode<T> towardsEnd(AVLNode<T> node) {
+            return descending ? node.getLeft() : node.getRight();
+        }
+
+        /**
+         * Helper method to determine whether data comes before the range in
+         * the iteration order.
+         *
+         * @param data the data in question
+         * @return whether the data is outside the bound iterated from
+         */
+        private boolean beforeStart(T data) {
+            return descending ? aboveUpper(data) : belowLower(data);
+        }
+
+        /**
+         * Helper method to determine whether data comes after the range in
+         * the iteration order.
+         *
+         * @param data the data in question
+         * @return whether the data is outside the bound iterated towards
+         */
+        private boolean pastEnd(T data) {
+            return descending ? belowLower(data) : aboveUpper(data);
+        }
+
+        /**
+         * Helper method to determine whether data is below the lower bound.
+         *
+         * @param data the data in question
+         * @return whether the data is too small to be in the range
+         */
+        private boolean belowLower(T data) {
+            if (lower == null) {
+                return false;
+            }
+            int compare = data.compareTo(lower);
+            return compare < 0 || (compare == 0 && !lowerInclusive);
+        }
+
+        /**
+         * Helper method to determine whether data is above the upper bound.
+         *
+         * @param data the data in question
+         * @return whether the data is too large to be in the range
+         */
+        private boolean aboveUpper(T data) {
+            if (upper == null) {
+                return false;
+            }
+            int compare = data.compareTo(upper);
+            return compare > 0 || (compare == 0 && !upperInclusive);
+        }
+    }
+
+    /**
+     * A live, unmodifiable view of the data strictly between two bounds.
+     */
+    private final class RangeView extends AbstractSet<T> {
+        private final T lower;
+        private final T upper;
+
+        /**
+         * Create a view of the data strictly between two bounds.
+         *
+         * @param lower the exclusive lower bound
+         * @param upper the exclusive upper bound
+         */
+        private RangeView(T lower, T upper) {
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return rangeIterator(lower, false, upper, false);
+        }
+
+        @Override
+        public int size() {
+            if (lower.compareTo(upper) >= 0) {
+                return 0;
+            }
+            // Everything below upper, less everything up to lower
+            int count = rank(upper) - rank(lower);
+            return AVL.this.contains(lower) ? count - 1 : count;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (o == null) {
+                return false;
+            }
+            T data = (T) o;
+            return data.compareTo(lower) > 0 && data.compareTo(upper) < 0
+                    && AVL.this.contains(data);
+        }
+    }
+}
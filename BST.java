@@ -1,7 +1,11 @@
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.LinkedList;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 /**
@@ -43,102 +47,176 @@ public class BST<T extends Comparable<? super T>> implements BSTInterface<T> {
         }
     }
 
-    @Override
-    public void add(T data) {
-        if (data == null) {
-            throw new IllegalArgumentException("Input data is null, please"
-                    + " use a non-null input.");
+    /**
+     * Builds a perfectly balanced BST from data in strictly ascending
+     * order, such as a snapshot of another tree. Every node is created once
+     * in order, so this takes O(n) time instead of the O(n log n) of adding
+     * the data one at a time.
+     *
+     * @param data the data in strictly ascending order
+     * @param count the number of items data yields
+     * @param <T> the type of data in the tree
+     * @return the new tree
+     * @throws IllegalArgumentException if data is null, count is negative,
+     * or data yields fewer than count items, a null item, or items out of
+     * order
+     */
+    static <T extends Comparable<? super T>> BST<T> fromSorted(
+            Iterator<? extends T> data, int count) {
+        if (data == null || count < 0) {
+            throw new IllegalArgumentException("Input data is null or the "
+                    + "count is negative, please use a valid argument next "
+                    + "time.");
         }
-        // Most General Case:
-        root = addNode(data, root);
+        BST<T> tree = new BST<>();
+        Iterator<T> ascending = new Iterator<T>() {
+            private T last;
+
+            @Override
+            public boolean hasNext() {
+                return data.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!data.hasNext()) {
+                    throw new IllegalArgumentException("The data ran out "
+                            + "before count items were read.");
+                }
+                T item = data.next();
+                if (item == null
+                        || (last != null && last.compareTo(item) >= 0)) {
+                    throw new IllegalArgumentException("The data is null or "
+                            + "not in strictly ascending order.");
+                }
+                last = item;
+                return item;
+            }
+        };
+        tree.root = tree.buildSorted(ascending, count);
+        tree.size = count;
+        return tree;
     }
 
     /**
-     * Recursive helper method to add a new node to the tree using pointer
-     * reinforcement.
-     * A successful add indicates that a location was found and there are
-     * no duplicate nodes in the tree.
+     * Private recursive helper method to build a balanced subtree from the
+     * next count items of ascending data, building the left half before its
+     * root and the root before the right half so the items are consumed in
+     * order.
      *
-     * @param data the data to be added
-     * @param node the node that is being searched through currently
-     * @return whether the data was added successfully or not
+     * @param data the remaining data in ascending order
+     * @param count the number of items in the subtree
+     * @return the root of the subtree, or null if count is 0
      */
-    private BSTNode<T> addNode(T data, BSTNode<T> node) {
-        if (node == null) {
-            size++;
-            return new BSTNode<>(data);
-        } else if (data.compareTo(node.getData()) > 0) {
-            node.setRight(addNode(data, node.getRight()));
-        } else if (data.compareTo(node.getData()) < 0) {
-            node.setLeft(addNode(data, node.getLeft()));
+    private BSTNode<T> buildSorted(Iterator<T> data, int count) {
+        if (count == 0) {
+            return null;
         }
+        int leftCount = count / 2;
+        BSTNode<T> left = buildSorted(data, leftCount);
+        BSTNode<T> node = new BSTNode<>(data.next());
+        node.setLeft(left);
+        node.setRight(buildSorted(data, count - leftCount - 1));
         return node;
     }
 
+    @Override
+    public void add(T data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Input data is null, please"
+                    + " use a non-null input.");
+        }
+        if (root == null) {
+            size++;
+            root = new BSTNode<>(data);
+            return;
+        }
+        // Walk down to the empty spot for the data; a duplicate is not added
+        BSTNode<T> node = root;
+        while (true) {
+            int compare = data.compareTo(node.getData());
+            if (compare > 0) {
+                if (node.getRight() == null) {
+                    size++;
+                    node.setRight(new BSTNode<>(data));
+                    return;
+                }
+                node = node.getRight();
+            } else if (compare < 0) {
+                if (node.getLeft() == null) {
+                    size++;
+                    node.setLeft(new BSTNode<>(data));
+                    return;
+                }
+                node = node.getLeft();
+            } else {
+                return;
+            }
+        }
+    }
+
     @Override
     public T remove(T data) {
         if (data == null) {
             throw new java.lang.IllegalArgumentException("Input data is null,"
                     + " please use a non-null input.");
         }
-        BSTNode<T> dummy = new BSTNode<>(null);
-        root = removeNode(root, dummy, data);
-        size--;
-        return dummy.getData();
-    }
-
-    /**
-     * Recursive helper method to help remove a certain node from the tree
-     *
-     * @param  node the node being searched through currently
-     * @param  dummy a dummy node to store data
-     * @param  data the data being searched for and removed
-     * @throws java.util.NoSuchElementException if the node is not found
-     * @return the removed node
-     */
-    private BSTNode<T> removeNode(BSTNode<T> node, BSTNode<T> dummy, T data) {
+        BSTNode<T> parent = null;
+        BSTNode<T> node = root;
+        while (node != null) {
+            int compare = data.compareTo(node.getData());
+            if (compare == 0) {
+                break;
+            }
+            parent = node;
+            node = compare < 0 ? node.getLeft() : node.getRight();
+        }
         if (node == null) {
             throw new java.util.NoSuchElementException("The data to be removed"
                     + " does not exist in this tree. Please use a valid input "
                     + "next time.");
         }
-        int compare = data.compareTo(node.getData());
-        if (compare < 0) {
-            node.setLeft(removeNode(node.getLeft(), dummy, data));
-        } else if (compare > 0) {
-            node.setRight(removeNode(node.getRight(), dummy, data));
+        T removed = node.getData();
+        if (node.getLeft() != null && node.getRight() != null) {
+            // Replace the data with the predecessor's, and unlink the
+            // predecessor, or right most node in the left branch, instead
+            BSTNode<T> predecessorParent = node;
+            BSTNode<T> predecessor = node.getLeft();
+            while (predecessor.getRight() != null) {
+                predecessorParent = predecessor;
+                predecessor = predecessor.getRight();
+            }
+            node.setData(predecessor.getData());
+            replaceChild(predecessorParent, predecessor,
+                    predecessor.getLeft());
         } else {
-            dummy.setData(node.getData());
-            if (isLeaf(node)) {
-                return null;
-            } else if (node.getRight() == null) {
-                return node.getLeft();
-            } else if (node.getLeft() == null) {
-                return node.getRight();
+            // Replace the node with its only child, or with null if it is a
+            // leaf
+            BSTNode<T> child = node.getLeft() != null ? node.getLeft()
+                    : node.getRight();
+            if (parent == null) {
+                root = child;
             } else {
-                BSTNode<T> dummy2 = new BSTNode<>(null);
-                node.setLeft(removePredecessor(node.getLeft(), dummy2));
-                node.setData(dummy2.getData());
+                replaceChild(parent, node, child);
             }
         }
-        return node;
+        size--;
+        return removed;
     }
 
     /**
-     * Helper method help remove the predecessor, or right most node
-     * in a branch of the tree
+     * Helper method to replace one child of a node with another node.
      *
-     * @param node the node being searched through currently
-     * @param dummy a dummy node used to store the data from the predecessor
-     * @return the node holding the largest data, or the predecessor
+     * @param parent the node whose child is replaced
+     * @param child the current child
+     * @param replacement the node taking its place, possibly null
      */
-    private BSTNode<T> removePredecessor(BSTNode<T> node, BSTNode<T> dummy) {
-        if (node.getRight() == null) {
-            dummy.setData(node.getData());
-            return node.getLeft();
+    private void replaceChild(BSTNode<T> parent, BSTNode<T> child,
+                              BSTNode<T> replacement) {
+        if (parent.getLeft() == child) {
+            parent.setLeft(replacement);
         } else {
-            node.setRight(removePredecessor(node.getRight(), dummy));
-            return node;
+            parent.setRight(replacement);
         }
     }
 
@@ -147,35 +225,14 @@ public class BST<T extends Comparable<? super T>> implements BSTInterface<T> {
         if (data == null) {
             throw new IllegalArgumentException("Input data is null, please"
                     + " use a non-null input.");
-        } else {
-            return getNode(data, root);
         }
-    }
-
-    /**
-     * Recursive helper method to find and get a node within the tree.
-     *
-     * @param data the data to be returned if found
-     * @param node the node that is currently being searched through
-     * @throws NoSuchElementException if the input data is not found
-     * @return the data from the found node (not the input data)
-     */
-    private T getNode(T data, BSTNode<T> node) {
-        if (node != null) {
-            if (data.compareTo(node.getData()) == 0) {
-                // Return the data if the it was found
-                return node.getData();
-            } else if (data.compareTo(node.getData()) < 0) {
-                // If the data is less than the node, search the left side
-                return getNode(data, node.getLeft());
-            } else if (data.compareTo(node.getData()) > 0) {
-                // If the data is less than the node, search the right side
-                return getNode(data, node.getRight());
-            }
+        BSTNode<T> node = findNode(data);
+        if (node == null) {
+            throw new NoSuchElementException("The input is not contained in "
+                    + "this tree. Consider adding that data.");
         }
-        // Throw an exception if the node is not found
-        throw new NoSuchElementException("The input is not contained in this"
-                + " tree. Consider adding that data.");
+        // Return the data from the found node (not the input data)
+        return node.getData();
     }
 
     @Override
@@ -183,36 +240,29 @@ public class BST<T extends Comparable<? super T>> implements BSTInterface<T> {
         if (data == null) {
             throw new IllegalArgumentException("Input data is null, please"
                     + " use a non-null input.");
-        } else {
-            return search(data, root);
         }
+        return findNode(data) != null;
     }
 
     /**
-     * Search through the tree looking for some particular data within a
-     * node.
-     * A successful search indicates that a node containing the same data
-     * as the one in question was found within the tree
+     * Helper method to search down the tree for the node holding some
+     * particular data.
      *
      * @param data the data being searched for
-     * @param node the node being searched through
-     * @return whether the node was found or not
+     * @return the node holding data equal to the input, or null if there is
+     * none
      */
-    private boolean search(T data, BSTNode<T> node) {
-        if (node != null) {
-            if (data.compareTo(node.getData()) == 0) {
-                // Return true if the data was found
-                return true;
-            } else if (data.compareTo(node.getData()) < 0) {
-                // If the data is less than the node, search its left side
-                return search(data, node.getLeft());
-            } else if (data.compareTo(node.getData()) > 0) {
-                // If the data is less than the node, search its right side
-                return search(data, node.getRight());
+    private BSTNode<T> findNode(T data) {
+        BSTNode<T> node = root;
+        while (node != null) {
+            int compare = data.compareTo(node.getData());
+            if (compare == 0) {
+                return node;
             }
+            // Search the left side if the data is less, the right otherwise
+            node = compare < 0 ? node.getLeft() : node.getRight();
         }
-        // Return false if the data is never found
-        return false;
+        return null;
     }
 
     @Override
@@ -222,84 +272,63 @@ public class BST<T extends Comparable<? super T>> implements BSTInterface<T> {
 
     @Override
     public List<T> preorder() {
-        // node, left, right; base: is leaf
+        // Preorder marks Node, Node.left, Node.right in that order, so the
+        // right child is pushed below the left one
         LinkedList<T> traversal = new LinkedList<>();
-        return preorderTraversal(root, traversal);
-    }
-
-    /**
-     * Recursive helper method to traverse through the tree, saving each
-     * particular node to a list.
-     * Preorder Traversal is defined as marking Node, Node.left, Node.right in
-     * that order.
-     *
-     * @param node the node being traversed through currently
-     * @param traversal the list that the nodes are recorded in
-     * @return the list of all visited nodes
-     */
-    private List<T> preorderTraversal(BSTNode<T> node, List<T> traversal) {
-        if (node != null && !isLeaf(node)) {
-            traversal.add(node.getData());
-            preorderTraversal(node.getLeft(), traversal);
-            preorderTraversal(node.getRight(), traversal);
-        } else if (node != null && isLeaf(node)) {
-            traversal.add(node.getData());
+        LinkedList<BSTNode<T>> stack = new LinkedList<>();
+        if (root != null) {
+            stack.push(root);
+        }
+        while (!stack.isEmpty()) {
+            BSTNode<T> node = stack.pop();
+            traversal.addLast(node.getData());
+            if (node.getRight() != null) {
+                stack.push(node.getRight());
+            }
+            if (node.getLeft() != null) {
+                stack.push(node.getLeft());
+            }
         }
         return traversal;
     }
 
     @Override
     public List<T> postorder() {
-        // left, right, node; base: if leaf
+        // Postorder marks Node.left, Node.right, Node in that order, which is
+        // the reverse of marking Node, Node.right, Node.left
         LinkedList<T> traversal = new LinkedList<>();
-        return postorderTraversal(root, traversal);
-    }
-
-    /**
-     * Recursive helper method to traverse through the tree, saving each
-     * particular node to a list.
-     * Postorder Traversal is defined as marking Node.left, Node.right, Node in
-     * that order.
-     *
-     * @param node the node being traversed through currently
-     * @param traversal the list that the nodes are recorded in
-     * @return the list of all visited nodes
-     */
-    private List<T> postorderTraversal(BSTNode<T> node, List<T> traversal) {
-        if (node != null && !isLeaf(node)) {
-            postorderTraversal(node.getLeft(), traversal);
-            postorderTraversal(node.getRight(), traversal);
-            traversal.add(node.getData());
-        } else if (node != null && isLeaf(node)) {
-            traversal.add(node.getData());
+        LinkedList<BSTNode<T>> stack = new LinkedList<>();
+        if (root != null) {
+            stack.push(root);
+        }
+        while (!stack.isEmpty()) {
+            BSTNode<T> node = stack.pop();
+            traversal.addFirst(node.getData());
+            if (node.getLeft() != null) {
+                stack.push(node.getLeft());
+            }
+            if (node.getRight() != null) {
+                stack.push(node.getRight());
+            }
         }
         return traversal;
     }
 
     @Override
     public List<T> inorder() {
-        // left, node, right; base: is leaf
+        // Inorder marks Node.left, Node, Node.right in that order, so every
+        // node waits on the stack until its left branch has been marked
         LinkedList<T> traversal = new LinkedList<>();
-        return inorderTraversal(root, traversal);
-    }
-
-    /**
-     * Recursive helper method to traverse through the tree, saving each
-     * particular node to a list.
-     * Inorder Traversal is defined as marking Node.left, Node, Node.right in
-     * that order.
-     *
-     * @param node the node being traversed through currently
-     * @param traversal the list that the nodes are recorded in
-     * @return the list of all visited nodes
-     */
-    private List<T> inorderTraversal(BSTNode<T> node, List<T> traversal) {
-        if (node != null && !isLeaf(node)) {
-            inorderTraversal(node.getLeft(), traversal);
-            traversal.add(node.getData());
-            inorderTraversal(node.getRight(), traversal);
-        } else if (node != null && isLeaf(node)) {
-            traversal.add(node.getData());
+        LinkedList<BSTNode<T>> stack = new LinkedList<>();
+        BSTNode<T> node = root;
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.getLeft();
+            }
+            node = stack.pop();
+            traversal.addLast(node.getData());
+            node = node.getRight();
         }
         return traversal;
     }
@@ -314,7 +343,7 @@ public class BST<T extends Comparable<? super T>> implements BSTInterface<T> {
         if (data1.equals(data2)) {
             path.add(data1);
         } else {
-            BSTNode<T> dca = findCommonAncestor(data1, data2, root);
+            BSTNode<T> dca = findCommonAncestor(data1, data2);
             path = findFirstLeg(data1, dca, path);
             path = findSecondLeg(data2, dca, path);
         }
@@ -322,12 +351,12 @@ public class BST<T extends Comparable<? super T>> implements BSTInterface<T> {
     }
 
     /**
-     * Recursive helper method to find the first half of the path between
+     * Helper method to find the first half of the path between
      * two nodes. This path is from data1 to the Deepest Common Ancestor (DCA),
      * adding all the nodes to data1 to the front of the list.
      *
      * @param data the data to which the path is made
-     * @param node the node being searched through currently
+     * @param node the node the search starts from, the DCA
      * @param path the continuously growing path to the data
      * @throws NoSuchElementException if the data is not found in the tree
      * @return the list of all nodes between the DCA and the data, excluding
@@ -335,33 +364,29 @@ public class BST<T extends Comparable<? super T>> implements BSTInterface<T> {
      */
     private List<T> findFirstLeg(T data, BSTNode<T> node, List<T> path) {
         // Traverse to data1 adding nodes along the way to the front
-        if (node != null) {
-            if (data.compareTo(node.getData()) == 0) {
-                ((LinkedList<T>) path).addFirst(node.getData());
+        while (node != null) {
+            int compare = data.compareTo(node.getData());
+            ((LinkedList<T>) path).addFirst(node.getData());
+            if (compare == 0) {
                 // Since inevitably the DCA was added, remove it since
                 // it will also be added in the second leg - O(1)
                 ((LinkedList<T>) path).removeLast();
                 // This is the end of the search
                 return path;
-            } else if (data.compareTo(node.getData()) > 0) {
-                ((LinkedList<T>) path).addFirst(node.getData());
-                return findFirstLeg(data, node.getRight(), path);
-            } else {
-                ((LinkedList<T>) path).addFirst(node.getData());
-                return findFirstLeg(data, node.getLeft(), path);
             }
+            node = compare > 0 ? node.getRight() : node.getLeft();
         }
         throw new NoSuchElementException("One or more of the given inputs"
                 + " is not contained in this tree.");
     }
 
     /**
-     * Recursive helper method to find the second half of the path between
+     * Helper method to find the second half of the path between
      * two nodes. This path is from data2 to the Deepest Common Ancestor (DCA),
      * adding all the nodes to data2 to the back of the list.
      *
      * @param data the data to which the path is made
-     * @param node the node being searched through currently
+     * @param node the node the search starts from, the DCA
      * @param path the continuously growing path to the data
      * @throws NoSuchElementException if the data is not found in the tree
      * @return the list of all nodes between the DCA and the data, including
@@ -369,59 +394,77 @@ public class BST<T extends Comparable<? super T>> implements BSTInterface<T> {
      */
     private List<T> findSecondLeg(T data, BSTNode<T> node, List<T> path) {
         // Traverse to data2 adding nodes along the way to the back
-        if (node != null) {
-            if (data.compareTo(node.getData()) == 0) {
-                ((LinkedList<T>) path).addLast(node.getData());
+        while (node != null) {
+            int compare = data.compareTo(node.getData());
+            ((LinkedList<T>) path).addLast(node.getData());
+            if (compare == 0) {
                 // This is the end of the search
                 return path;
-            } else if (data.compareTo(node.getData()) > 0) {
-                ((LinkedList<T>) path).addLast(node.getData());
-                return findSecondLeg(data, node.getRight(), path);
-            } else {
-                ((LinkedList<T>) path).addLast(node.getData());
-                return findSecondLeg(data, node.getLeft(), path);
             }
+            node = compare > 0 ? node.getRight() : node.getLeft();
         }
         throw new NoSuchElementException("One or more of the given inputs"
                 + " is not contained in this tree.");
     }
 
     /**
-     * Recursive helper method to determine the Deepest Common Ancestor (DCA)
+     * Helper method to determine the Deepest Common Ancestor (DCA)
      * of data1 and data2.
      * The DCA is defined as the lowest node in the tree that possesses both
      * data1 and data2 as children in its subtree.
      *
      * @param data1 the first data input (can be less than data2)
      * @param data2 the second data input (can be less than data1)
-     * @param node the node being searched through currently
-     * @return the node for the Deepest Common Ancestor
+     * @return the node for the Deepest Common Ancestor, or null if the search
+     * runs off the tree
      */
-    private BSTNode<T> findCommonAncestor(T data1, T data2, BSTNode<T> node) {
-        // Traverse to DCA once
-        if (data1.compareTo(data2) < 0) {
-            // d1 < DCA < d2
-            if (node.getData().compareTo(data1) >= 0
-                    && node.getData().compareTo(data2) <= 0) {
-                // DCA found
-                return node;
-            } else if (node.getData().compareTo(data1) < 0) {
-                return findCommonAncestor(data1, data2, node.getRight());
+    private BSTNode<T> findCommonAncestor(T data1, T data2) {
+        // Order the inputs so that low < DCA < high
+        T low = data1.compareTo(data2) < 0 ? data1 : data2;
+        T high = low == data1 ? data2 : data1;
+        BSTNode<T> node = root;
+        while (node != null) {
+            if (node.getData().compareTo(low) < 0) {
+                node = node.getRight();
+            } else if (node.getData().compareTo(high) > 0) {
+                node = node.getLeft();
             } else {
-                return findCommonAncestor(data1, data2, node.getLeft());
-            }
-        } else {
-            // d2 < DCA < d1
-            if (node.getData().compareTo(data2) >= 0
-                    && node.getData().compareTo(data1) <= 0) {
                 // DCA found
                 return node;
-            } else if (node.getData().compareTo(data2) < 0) {
-                return findCommonAncestor(data1, data2, node.getRight());
-            } else {
-                return findCommonAncestor(data1, data2, node.getLeft());
             }
         }
+        return null;
+    }
+
+    /**
+     * Creates a Spliterator over the data in the tree in sorted order. It
+     * splits by handing off subtrees, so the tree can be processed in
+     * parallel without being copied. The tree must not be modified while the
+     * spliterator is in use.
+     *
+     * @return a spliterator over the data in the tree
+     */
+    public Spliterator<T> spliterator() {
+        return new TreeSpliterator<BSTNode<T>, T>(root, size,
+                BSTNode::getLeft, BSTNode::getRight, BSTNode::getData);
+    }
+
+    /**
+     * Creates a sequential Stream of the data in the tree in sorted order.
+     *
+     * @return a stream of the data in the tree
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Creates a parallel Stream of the data in the tree in sorted order.
+     *
+     * @return a possibly parallel stream of the data in the tree
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
     }
 
     @Override
@@ -440,7 +483,8 @@ public class BST<T extends Comparable<? super T>> implements BSTInterface<T> {
     }
 
     /**
-     * Recursive helper method for determining the height of any node.
+     * Helper method for determining the height of any node, counting the
+     * levels below it one at a time with the help of a queue.
      * A node's height is defined as {@code max(left.height, right.height) + 1}.
      * A leaf node has a height of 0. Calculated in O(n).
      *
@@ -448,12 +492,26 @@ public class BST<T extends Comparable<? super T>> implements BSTInterface<T> {
      * @return the height of that node
      */
     private int nodeHeight(BSTNode<T> node) {
-        if (node == null || isLeaf(node)) {
+        if (node == null) {
             return 0;
-        } else {
-            return Math.max(nodeHeight(node.getLeft()),
-                    nodeHeight(node.getRight())) + 1;
         }
+        int height = -1;
+        LinkedList<BSTNode<T>> level = new LinkedList<>();
+        level.addLast(node);
+        while (!level.isEmpty()) {
+            height++;
+            // Replace the current level with the one below it
+            for (int i = level.size(); i > 0; i--) {
+                BSTNode<T> temp = level.removeFirst();
+                if (temp.getLeft() != null) {
+                    level.addLast(temp.getLeft());
+                }
+                if (temp.getRight() != null) {
+                    level.addLast(temp.getRight());
+                }
+            }
+        }
+        return height;
     }
 
     /**
@@ -0,0 +1,134 @@
+/**
+ * A blocked Bloom filter over hash codes, which can tell that a key is
+ * definitely absent from a set without touching the set.
+ *
+ * The filter is an array of blocks of 256 bits, each made of eight 32-bit
+ * words. A hash code selects one block and sets one bit in each of its eight
+ * words, so adding or querying a key touches a single 32-byte block (half a
+ * cache line) rather than bits scattered across the whole array. Keys can
+ * be added but not removed, so a filter over a changing set has to be
+ * rebuilt once enough of its keys are gone.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class BlockedBloomFilter {
+
+    /**
+     * The number of bits reserved for each expected key, which gives a
+     * false-positive rate of roughly one percent at full capacity.
+     */
+    public static final int BITS_PER_KEY = 10;
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Integer.SIZE;
+    private static final int[] SALTS = {0x47B6137B, 0x44974D91, 0x8824AD5B,
+        0xA2B7289D, 0x705495C7, 0x2DF1424B, 0x9EFC4947, 0x5C6BFB31};
+
+    private final int[] words;
+    private final int blocks;
+
+    /**
+     * Create an empty filter sized for the given number of keys.
+     *
+     * @param expectedKeys the number of keys expected to be added
+     * @throws IllegalArgumentException if expectedKeys is negative
+     */
+    public BlockedBloomFilter(int expectedKeys) {
+        if (expectedKeys < 0) {
+            throw new IllegalArgumentException("The expected number of keys "
+                    + "is negative, please use a valid input.");
+        }
+        long bits = (long) expectedKeys * BITS_PER_KEY;
+        blocks = (int) Math.max(1, (bits + BITS_PER_BLOCK - 1)
+                / BITS_PER_BLOCK);
+        words = new int[blocks * WORDS_PER_BLOCK];
+    }
+
+    /**
+     * Adds a hash code to the filter.
+     *
+     * @param hash the hash code of the key to add
+     */
+    public void add(int hash) {
+        long h = mix(hash);
+        int base = blockOf(h);
+        int low = (int) h;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            words[base + i] |= 1 << ((low * SALTS[i]) >>> 27);
+        }
+    }
+
+    /**
+     * Determines whether a hash code may have been added to the filter.
+     *
+     * @param hash the hash code of the key in question
+     * @return false if the hash code was definitely never added, and true if
+     * it may have been
+     */
+    public boolean mightContain(int hash) {
+        long h = mix(hash);
+        int base = blockOf(h);
+        int low = (int) h;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            if ((words[base + i] & (1 << ((low * SALTS[i]) >>> 27))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the chance that {@code mightContain} returns true for a hash
+     * code that was never added, from how full the blocks currently are. A
+     * query hits a block at random and then needs its bit to be set in all
+     * eight words, so this is the average over the blocks of the product of
+     * the fill of their words.
+     *
+     * @return the estimated false-positive rate
+     */
+    public double estimatedFalsePositiveRate() {
+        double sum = 0;
+        for (int base = 0; base < words.length; base += WORDS_PER_BLOCK) {
+            double rate = 1;
+            for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+                rate *= Integer.bitCount(words[base + i])
+                        / (double) Integer.SIZE;
+            }
+            sum += rate;
+        }
+        return sum / blocks;
+    }
+
+    /**
+     * Returns the size of the filter's bit array.
+     *
+     * @return the number of bytes used by the filter's bits
+     */
+    public long sizeInBytes() {
+        return (long) words.length * Integer.BYTES;
+    }
+
+    /**
+     * Helper method to stretch a hash code to 64 well mixed bits, so that
+     * the block and the bits within it are picked independently.
+     *
+     * @param hash the hash code to mix
+     * @return the mixed hash
+     */
+    private static long mix(int hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Helper method to find the first word of the block of a mixed hash,
+     * using its high half scaled onto the number of blocks.
+     *
+     * @param h the mixed hash
+     * @return the index of the first word of the block
+     */
+    private int blockOf(long h) {
+        return (int) (((h >>> 32) * blocks) >>> 32) * WORDS_PER_BLOCK;
+    }
+}
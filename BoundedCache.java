@@ -0,0 +1,572 @@
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A cache of bounded size built on top of HashMap, which evicts entries on
+ * its own once it holds more than its maximum.
+ *
+ * The bound is either a number of entries or a total weight, where the
+ * weight of every entry is given by a weigher. Which entry is evicted is
+ * decided by an EvictionPolicy. Every entry sits in a single node that is
+ * both the value stored in the HashMap and a link of the doubly linked list
+ * ordering the entries from the next victim to the most recently inserted or
+ * used entry. Recording a read or write therefore only relinks a node in
+ * O(1) without allocating anything, and only a new entry allocates a node.
+ *
+ * The cache counts the reads that found their key (hits), the reads that
+ * did not (misses) and the entries it evicted. {@code containsKey} counts as
+ * neither and does not change the order of the entries.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class BoundedCache<K, V> implements HashMapInterface<K, V> {
+
+    private final HashMap<K, Node<K, V>> index;
+    private final EvictionPolicy policy;
+    private final long maximum;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private final FrequencySketch sketch;
+    // head is the next victim, tail the most recently inserted or used entry
+    private Node<K, V> head;
+    private Node<K, V> tail;
+    private long weightedSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Create a cache holding at most {@code maximumSize} entries.
+     *
+     * @param maximumSize the largest number of entries the cache may hold
+     * @param policy the policy choosing which entry to evict
+     * @throws IllegalArgumentException if maximumSize is non-positive or
+     * policy is null
+     */
+    public BoundedCache(long maximumSize, EvictionPolicy policy) {
+        this(maximumSize, (key, value) -> 1, policy, maximumSize);
+    }
+
+    /**
+     * Create a cache whose entries weigh at most {@code maximumWeight} in
+     * total. The weight of an entry is taken when it is written.
+     *
+     * @param maximumWeight the largest total weight of the entries
+     * @param weigher the function giving the non-negative weight of an entry
+     * @param policy the policy choosing which entry to evict
+     * @throws IllegalArgumentException if maximumWeight is non-positive or
+     * weigher or policy is null
+     */
+    public BoundedCache(long maximumWeight,
+                        ToIntBiFunction<? super K, ? super V> weigher,
+                        EvictionPolicy policy) {
+        this(maximumWeight, weigher, policy, 0);
+    }
+
+    /**
+     * Create a cache bounded by weight whose frequency sketch starts out
+     * sized for the given number of keys. A total weight says nothing about
+     * how many entries fit, so a cache bounded by weight starts the sketch
+     * at its smallest and lets it grow with the entries.
+     *
+     * @param maximumWeight the largest total weight of the entries
+     * @param weigher the function giving the non-negative weight of an entry
+     * @param policy the policy choosing which entry to evict
+     * @param expectedKeys the number of keys to size the sketch for
+     * @throws IllegalArgumentException if maximumWeight is non-positive or
+     * weigher or policy is null
+     */
+    private BoundedCache(long maximumWeight,
+                         ToIntBiFunction<? super K, ? super V> weigher,
+                         EvictionPolicy policy, long expectedKeys) {
+        if (maximumWeight <= 0 || weigher == null || policy == null) {
+            throw new IllegalArgumentException("The maximum must be positive "
+                    + "and the weigher and policy non-null, please use a "
+                    + "valid input.");
+        }
+        index = new HashMap<>();
+        this.policy = policy;
+        this.maximum = maximumWeight;
+        this.weigher = weigher;
+        sketch = policy == EvictionPolicy.TINY_LFU ? new FrequencySketch(
+                (int) Math.min(expectedKeys, FrequencySketch.MAXIMUM_WIDTH))
+                : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The entry is then evicted right away if the policy prefers the entries
+     * already in the cache, so {@code put} does not guarantee that the key
+     * is present afterwards.
+     *
+     * @throws IllegalArgumentException if the key or value is null, or the
+     * weigher returns a negative weight
+     */
+    @Override
+    public V put(K key, V value) {
+        if (value == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or value is null"
+                    + ", please use a valid input.");
+        }
+        int weight = weigh(key, value);
+        int hash = key.hashCode();
+        if (sketch != null) {
+            sketch.increment(hash);
+        }
+        Node<K, V> node = index.getOrDefault(key, null);
+        if (node != null) {
+            // Case 1: Overwrite the entry, which counts as a use of it
+            V rep = node.value;
+            node.value = value;
+            weightedSize += weight - node.weight;
+            node.weight = weight;
+            if (policy != EvictionPolicy.FIFO) {
+                moveToTail(node);
+            }
+            evictIfNeeded(null);
+            return rep;
+        }
+        // Case 2: Add the entry as the newest, then make room for it
+        node = new Node<>(hash, key, value, weight);
+        index.put(key, node);
+        linkLast(node);
+        weightedSize += weight;
+        if (sketch != null) {
+            sketch.ensureCapacity(index.size());
+        }
+        evictIfNeeded(node);
+        return null;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        Node<K, V> node = index.remove(key);
+        unlink(node);
+        weightedSize -= node.weight;
+        return node.value;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * A successful read counts as a hit and, except under FIFO, as a use of
+     * the entry. A failed read counts as a miss.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        Node<K, V> node = index.getOrDefault(key, null);
+        if (sketch != null) {
+            sketch.increment(key.hashCode());
+        }
+        if (node == null) {
+            misses++;
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        hits++;
+        if (policy != EvictionPolicy.FIFO) {
+            moveToTail(node);
+        }
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        return index.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The hit, miss and eviction counters are kept.
+     */
+    @Override
+    public void clear() {
+        index.clear();
+        head = null;
+        tail = null;
+        weightedSize = 0;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The keys are listed in eviction order, starting with the next victim.
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> set = new LinkedHashSet<>();
+        for (Node<K, V> cur = head; cur != null; cur = cur.next) {
+            set.add(cur.key);
+        }
+        return set;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The values are listed in eviction order, starting with the next victim.
+     */
+    @Override
+    public List<V> values() {
+        LinkedList<V> list = new LinkedList<>();
+        for (Node<K, V> cur = head; cur != null; cur = cur.next) {
+            list.addLast(cur.value);
+        }
+        return list;
+    }
+
+    @Override
+    public void resizeBackingTable(int length) {
+        index.resizeBackingTable(length);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The returned array is a copy of the underlying HashMap's table with
+     * the cache's nodes replaced by their keys and values.
+     */
+    @Override
+    public LinkedList<MapEntry<K, V>>[] getTable() {
+        LinkedList<MapEntry<K, Node<K, V>>>[] table = index.getTable();
+        LinkedList<MapEntry<K, V>>[] copy = ((LinkedList<MapEntry<K, V>>[])
+                new LinkedList[table.length]);
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] != null) {
+                copy[i] = new LinkedList<>();
+                for (MapEntry<K, Node<K, V>> entry : table[i]) {
+                    copy[i].addLast(new MapEntry<>(entry.getKey(),
+                            entry.getValue().value));
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the number of reads that found their key.
+     *
+     * @return the number of hits
+     */
+    public long hitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of reads that did not find their key.
+     *
+     * @return the number of misses
+     */
+    public long missCount() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries the cache has evicted, including new
+     * entries that were not admitted.
+     *
+     * @return the number of evictions
+     */
+    public long evictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Returns the fraction of reads that found their key.
+     *
+     * @return the hit rate, or 1 if there have been no reads
+     */
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 1.0 : hits / (double) requests;
+    }
+
+    /**
+     * Returns the total weight of the entries, which is the number of entries
+     * for a cache bounded by size.
+     *
+     * @return the total weight of the entries
+     */
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * Returns the bound on the number or total weight of the entries.
+     *
+     * @return the maximum of the cache
+     */
+    public long maximum() {
+        return maximum;
+    }
+
+    /**
+     * Helper method to evict entries until the cache is within its maximum.
+     * The victim is the oldest entry, except that under TINY_LFU a newly
+     * added entry is evicted itself if its key has not been requested more
+     * often than the victim's.
+     *
+     * @param candidate the newly added entry, or null if none was added
+     */
+    private void evictIfNeeded(Node<K, V> candidate) {
+        while (weightedSize > maximum) {
+            Node<K, V> victim = head;
+            if (sketch != null && candidate != null && victim != candidate
+                    && sketch.frequency(candidate.hash)
+                    <= sketch.frequency(victim.hash)) {
+                victim = candidate;
+            }
+            if (victim == candidate) {
+                candidate = null;
+            }
+            index.remove(victim.key);
+            unlink(victim);
+            weightedSize -= victim.weight;
+            evictions++;
+        }
+    }
+
+    /**
+     * Helper method to find the weight of an entry.
+     *
+     * @param key the key of the entry
+     * @param value the value of the entry
+     * @return the weight of the entry
+     * @throws IllegalArgumentException if the weight is negative
+     */
+    private int weigh(K key, V value) {
+        int weight = weigher.applyAsInt(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("The weigher returned a "
+                    + "negative weight, please use a valid weigher.");
+        }
+        return weight;
+    }
+
+    /**
+     * Helper method to make a node the most recently used one.
+     *
+     * @param node the node to move
+     */
+    private void moveToTail(Node<K, V> node) {
+        if (node != tail) {
+            unlink(node);
+            linkLast(node);
+        }
+    }
+
+    /**
+     * Helper method to append a node to the end of the eviction order.
+     *
+     * @param node the node to append
+     */
+    private void linkLast(Node<K, V> node) {
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+    }
+
+    /**
+     * Helper method to take a node out of the eviction order.
+     *
+     * @param node the node to unlink
+     */
+    private void unlink(Node<K, V> node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    /**
+     * An entry of the cache, which is also a link of the eviction order.
+     */
+    private static final class Node<K, V> {
+        private final int hash;
+        private final K key;
+        private V value;
+        private int weight;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        /**
+         * Create an unlinked entry.
+         *
+         * @param hash the hash code of the key
+         * @param key the key of the entry
+         * @param value the value of the entry
+         * @param weight the weight of the entry
+         */
+        private Node(int hash, K key, V value, int weight) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A count-min sketch estimating how often each key has been requested.
+     * Each of the four rows of saturating counters is indexed by a different
+     * mix of the hash code, and the estimate is the smallest of the four
+     * counters. After ten increments per counter of a row, every counter is
+     * halved so that old popularity fades away.
+     *
+     * A counter never exceeds 15, so sixteen 4-bit counters are packed into
+     * every long. Rows are at least sixteen counters wide, so every long
+     * belongs to a single row.
+     */
+    private static final class FrequencySketch {
+        private static final int MAXIMUM_WIDTH = 1 << 24;
+        private static final int MINIMUM_WIDTH = 16;
+        private static final int MAXIMUM_COUNT = 15;
+        // Clears the bit each counter receives from its neighbour on a shift
+        private static final long HALF_MASK = 0x7777777777777777L;
+        private static final int[] SEEDS = {0x97CB3127, 0xB492B66F,
+            0x9AE16A3B, 0xC2B2AE35};
+
+        private long[] counters;
+        private int width;
+        private int additions;
+
+        /**
+         * Create a sketch sized for the given number of keys.
+         *
+         * @param keys the number of keys expected to be in the cache
+         */
+        private FrequencySketch(int keys) {
+            allocate(keys);
+        }
+
+        /**
+         * Grows the sketch if the cache holds more keys than it is sized
+         * for. A key keeps its counts, because its counter in a wider row
+         * sits at the same index as before plus a multiple of the old width,
+         * and every one of those counters starts out as a copy of the old
+         * one.
+         *
+         * @param keys the number of keys in the cache
+         */
+        private void ensureCapacity(int keys) {
+            if (keys > width && width < MAXIMUM_WIDTH) {
+                long[] old = counters;
+                int oldWords = width >>> 4;
+                allocate(keys);
+                int words = width >>> 4;
+                for (int row = 0; row < SEEDS.length; row++) {
+                    for (int i = 0; i < words; i++) {
+                        counters[row * words + i] =
+                                old[row * oldWords + (i & (oldWords - 1))];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Records a request for a key.
+         *
+         * @param hash the hash code of the key
+         */
+        private void increment(int hash) {
+            for (int row = 0; row < SEEDS.length; row++) {
+                int ind = indexOf(hash, row);
+                if (count(ind) < MAXIMUM_COUNT) {
+                    counters[ind >>> 4] += 1L << ((ind & 15) << 2);
+                }
+            }
+            additions++;
+            if (additions >= 10 * width) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] = (counters[i] >>> 1) & HALF_MASK;
+                }
+                additions = additions >>> 1;
+            }
+        }
+
+        /**
+         * Estimates how often a key has been requested recently.
+         *
+         * @param hash the hash code of the key
+         * @return the estimated number of requests
+         */
+        private int frequency(int hash) {
+            int min = MAXIMUM_COUNT;
+            for (int row = 0; row < SEEDS.length; row++) {
+                min = Math.min(min, count(indexOf(hash, row)));
+            }
+            return min;
+        }
+
+        /**
+         * Helper method to read one counter.
+         *
+         * @param ind the index of the counter
+         * @return the value of the counter
+         */
+        private int count(int ind) {
+            return (int) (counters[ind >>> 4] >>> ((ind & 15) << 2)) & 0xF;
+        }
+
+        /**
+         * Helper method to allocate empty rows of at least the given width,
+         * rounded up to a power of two. The number of additions is kept, so
+         * that counts copied into the new rows still fade on schedule.
+         *
+         * @param keys the number of keys to size the rows for
+         */
+        private void allocate(int keys) {
+            int size = Math.max(MINIMUM_WIDTH, Math.min(keys, MAXIMUM_WIDTH));
+            width = Integer.highestOneBit(size - 1) << 1;
+            counters = new long[SEEDS.length * (width >>> 4)];
+        }
+
+        /**
+         * Helper method to find the counter of a key in a row.
+         *
+         * @param hash the hash code of the key
+         * @param row the row of the counter
+         * @return the index of the counter
+         */
+        private int indexOf(int hash, int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 16;
+            return row * width + (h & (width - 1));
+        }
+    }
+}
@@ -0,0 +1,527 @@
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An implementation of HashMap using bucketized cuckoo hashing, which bounds
+ * the work of every lookup no matter how the keys collide.
+ *
+ * The table is split into buckets of four slots, and every key may only
+ * live in one of two buckets, chosen by two independent mixes of its hash
+ * code. A lookup therefore compares the cached hash codes of at most eight
+ * slots (two runs of four adjacent ints) and a small stash, and calls
+ * {@code equals} only on matching hash codes. Inserting into two full
+ * buckets kicks a random resident of one of them over to its other bucket,
+ * and so on, until a free slot turns up. A walk that runs too long ends in
+ * the stash, which holds up to {@code STASH_SIZE} entries; once the stash is
+ * full too, every entry is rehashed into a table of 2n + 1 slots, taking
+ * the homeless entry along. Only keys whose hash codes collide far more than
+ * chance allows can overflow a table that is less than an eighth full, and
+ * for those the stash is doubled instead of the table growing.
+ *
+ * Four-way buckets let the table fill up far beyond the load factor of
+ * chaining, so the table is only regrown early once it is
+ * {@code MAX_CUCKOO_LOAD_FACTOR} full. The achieved load factor is reported
+ * by {@code loadFactor}.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class CuckooHashMap<K, V> implements HashMapInterface<K, V> {
+
+    /**
+     * The number of slots in a bucket.
+     */
+    public static final int BUCKET_SIZE = 4;
+
+    /**
+     * The number of entries the stash can hold, unless it has to be enlarged
+     * for keys with colliding hash codes.
+     */
+    public static final int STASH_SIZE = 4;
+
+    /**
+     * The load factor at which the table is regrown even if every insert
+     * still finds a slot.
+     */
+    public static final double MAX_CUCKOO_LOAD_FACTOR = 0.9;
+
+    /**
+     * The number of residents an insert may kick out before it gives up.
+     */
+    private static final int MAX_KICKS = 256;
+
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int buckets;
+    private Object[] stashKeys;
+    private Object[] stashValues;
+    private int[] stashHashes;
+    private int stashSize;
+    private int stashLimit;
+    private int size;
+    private int seed;
+    // The entry left without a slot by the last failed placement
+    private Object homelessKey;
+    private Object homelessValue;
+    private int homelessHash;
+
+    /**
+     * Create a hash map with no entries. The backing arrays have room for
+     * at least {@code INITIAL_CAPACITY} entries.
+     */
+    public CuckooHashMap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Create a hash map with no entries. The backing arrays have room for
+     * at least {@code initialCapacity} entries, rounded up to whole buckets.
+     *
+     * @param initialCapacity initial capacity of the backing arrays
+     * @throws IllegalArgumentException if initialCapacity is non-positive
+     */
+    public CuckooHashMap(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("The initial capacity must be "
+                    + "positive, please use a valid input.");
+        }
+        seed = 0x2545F491;
+        stashLimit = STASH_SIZE;
+        allocate(initialCapacity);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (value == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or value is null"
+                    + ", please use a valid input.");
+        }
+        int hash = key.hashCode();
+        int slot = findSlot(hash, key);
+        if (slot != -1) {
+            V rep = (V) values[slot];
+            values[slot] = value;
+            return rep;
+        }
+        int stashed = findStashed(hash, key);
+        if (stashed != -1) {
+            V rep = (V) stashValues[stashed];
+            stashValues[stashed] = value;
+            return rep;
+        }
+        if (((size + 1) / ((double) keys.length)) > MAX_CUCKOO_LOAD_FACTOR) {
+            rebuild((2 * keys.length) + 1, null, null, 0);
+        }
+        if (!place(hash, key, value)) {
+            // An insertion cycle: regrow, taking the homeless entry along
+            rebuild((2 * keys.length) + 1, homelessKey, homelessValue,
+                    homelessHash);
+        }
+        size++;
+        return null;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        int hash = key.hashCode();
+        int slot = findSlot(hash, key);
+        if (slot != -1) {
+            V rem = (V) values[slot];
+            keys[slot] = null;
+            values[slot] = null;
+            size--;
+            return rem;
+        }
+        int stashed = findStashed(hash, key);
+        if (stashed == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        V rem = (V) stashValues[stashed];
+        // Keep the stash packed by moving its last entry into the gap
+        stashSize--;
+        stashKeys[stashed] = stashKeys[stashSize];
+        stashValues[stashed] = stashValues[stashSize];
+        stashHashes[stashed] = stashHashes[stashSize];
+        stashKeys[stashSize] = null;
+        stashValues[stashSize] = null;
+        size--;
+        return rem;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        int hash = key.hashCode();
+        int slot = findSlot(hash, key);
+        if (slot != -1) {
+            return (V) values[slot];
+        }
+        int stashed = findStashed(hash, key);
+        if (stashed == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        return (V) stashValues[stashed];
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        int hash = key.hashCode();
+        return findSlot(hash, key) != -1 || findStashed(hash, key) != -1;
+    }
+
+    @Override
+    public void clear() {
+        stashLimit = STASH_SIZE;
+        allocate(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> set = new HashSet<>();
+        for (Object key : keys) {
+            if (key != null) {
+                set.add((K) key);
+            }
+        }
+        for (int i = 0; i < stashSize; i++) {
+            set.add((K) stashKeys[i]);
+        }
+        return set;
+    }
+
+    @Override
+    public List<V> values() {
+        LinkedList<V> list = new LinkedList<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                list.addLast((V) values[i]);
+            }
+        }
+        for (int i = 0; i < stashSize; i++) {
+            list.addLast((V) stashValues[i]);
+        }
+        return list;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The length is rounded up to whole buckets. If the entries cannot all
+     * be placed in a table of that length, the table keeps growing to
+     * 2 * length + 1 until they can.
+     *
+     * @throws IllegalArgumentException if length is non-positive or smaller
+     * than the number of entries in the map
+     */
+    @Override
+    public void resizeBackingTable(int length) {
+        if (length <= 0 || length < size) {
+            throw new IllegalArgumentException("The input length is not "
+                    + "positive or cannot hold every entry of the map, and "
+                    + "therefore is invalid. Please use an input of at least "
+                    + "max(1, size).");
+        }
+        rebuild(length, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Every occupied slot is reported as a chain holding exactly one entry.
+     * Stashed entries are appended to the chain of the first slot of their
+     * first bucket.
+     */
+    @Override
+    public LinkedList<MapEntry<K, V>>[] getTable() {
+        LinkedList<MapEntry<K, V>>[] table = ((LinkedList<MapEntry<K, V>>[])
+                new LinkedList[keys.length]);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                table[i] = new LinkedList<>();
+                table[i].addFirst(new MapEntry<>((K) keys[i], (V) values[i]));
+            }
+        }
+        for (int i = 0; i < stashSize; i++) {
+            int ind = firstBucket(stashHashes[i]) * BUCKET_SIZE;
+            if (table[ind] == null) {
+                table[ind] = new LinkedList<>();
+            }
+            table[ind].addLast(new MapEntry<>((K) stashKeys[i],
+                    (V) stashValues[i]));
+        }
+        return table;
+    }
+
+    /**
+     * Returns the fraction of the slots of the table holding an entry,
+     * counting stashed entries as well.
+     *
+     * @return the achieved load factor
+     */
+    public double loadFactor() {
+        return size / (double) keys.length;
+    }
+
+    /**
+     * Helper method to search the two buckets of a key.
+     *
+     * @param hash the hash code of the key
+     * @param key the key to search for
+     * @return the slot holding the key, or -1 if it is not in the table
+     */
+    private int findSlot(int hash, Object key) {
+        int first = firstBucket(hash);
+        int slot = findInBucket(first, hash, key);
+        if (slot == -1) {
+            slot = findInBucket(secondBucket(hash, first), hash, key);
+        }
+        return slot;
+    }
+
+    /**
+     * Helper method to search one bucket, comparing hash codes before keys.
+     *
+     * @param bucket the bucket to search
+     * @param hash the hash code of the key
+     * @param key the key to search for
+     * @return the slot holding the key, or -1 if it is not in the bucket
+     */
+    private int findInBucket(int bucket, int hash, Object key) {
+        int start = bucket * BUCKET_SIZE;
+        for (int i = start; i < start + BUCKET_SIZE; i++) {
+            if (hashes[i] == hash && keys[i] != null && keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to search the stash.
+     *
+     * @param hash the hash code of the key
+     * @param key the key to search for
+     * @return the index of the key in the stash, or -1 if it is not there
+     */
+    private int findStashed(int hash, Object key) {
+        for (int i = 0; i < stashSize; i++) {
+            if (stashHashes[i] == hash && stashKeys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to place an entry whose key is not in the map. If both
+     * buckets are full, residents are kicked to their other bucket until a
+     * free slot is found, and after {@code MAX_KICKS} kicks the entry being
+     * carried goes to the stash. If the stash is full as well, that entry is
+     * left in the homeless fields.
+     *
+     * @param hash the hash code of the key
+     * @param key the key of the entry
+     * @param value the value of the entry
+     * @return whether every entry found a place
+     */
+    private boolean place(int hash, Object key, Object value) {
+        int first = firstBucket(hash);
+        int second = secondBucket(hash, first);
+        if (placeInBucket(first, hash, key, value)
+                || placeInBucket(second, hash, key, value)) {
+            return true;
+        }
+        int bucket = nextRandom() < 0 ? first : second;
+        for (int kicks = 0; kicks < MAX_KICKS; kicks++) {
+            // Swap the carried entry with a random resident of the bucket
+            int slot = bucket * BUCKET_SIZE + (nextRandom() & 3);
+            Object kickedKey = keys[slot];
+            Object kickedValue = values[slot];
+            int kickedHash = hashes[slot];
+            keys[slot] = key;
+            values[slot] = value;
+            hashes[slot] = hash;
+            key = kickedKey;
+            value = kickedValue;
+            hash = kickedHash;
+            first = firstBucket(hash);
+            bucket = first == bucket ? secondBucket(hash, first) : first;
+            if (placeInBucket(bucket, hash, key, value)) {
+                return true;
+            }
+        }
+        if (stashSize < stashLimit) {
+            stashKeys[stashSize] = key;
+            stashValues[stashSize] = value;
+            stashHashes[stashSize] = hash;
+            stashSize++;
+            return true;
+        }
+        homelessKey = key;
+        homelessValue = value;
+        homelessHash = hash;
+        return false;
+    }
+
+    /**
+     * Helper method to store an entry in the first free slot of a bucket.
+     *
+     * @param bucket the bucket to store the entry in
+     * @param hash the hash code of the key
+     * @param key the key of the entry
+     * @param value the value of the entry
+     * @return whether the bucket had a free slot
+     */
+    private boolean placeInBucket(int bucket, int hash, Object key,
+                                  Object value) {
+        int start = bucket * BUCKET_SIZE;
+        for (int i = start; i < start + BUCKET_SIZE; i++) {
+            if (keys[i] == null) {
+                keys[i] = key;
+                values[i] = value;
+                hashes[i] = hash;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Helper method to move every entry, plus an optional extra one, into a
+     * new table of at least the given length. Whenever an entry cannot be
+     * placed, the new table is discarded and one of 2 * length + 1 tried.
+     * A table that is still less than an eighth full is not grown further,
+     * since only keys sharing too many buckets (such as keys with equal hash
+     * codes) can make it fail, so the stash is doubled instead.
+     *
+     * @param length the minimum number of slots of the new table
+     * @param extraKey the key of an entry not in the map yet, or null
+     * @param extraValue the value of the extra entry
+     * @param extraHash the hash code of the extra entry's key
+     */
+    private void rebuild(int length, Object extraKey, Object extraValue,
+                         int extraHash) {
+        int count = extraKey == null ? 0 : 1;
+        Object[] oldKeys = new Object[size + count];
+        Object[] oldValues = new Object[size + count];
+        int[] oldHashes = new int[size + count];
+        if (extraKey != null) {
+            oldKeys[0] = extraKey;
+            oldValues[0] = extraValue;
+            oldHashes[0] = extraHash;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                oldKeys[count] = keys[i];
+                oldValues[count] = values[i];
+                oldHashes[count] = hashes[i];
+                count++;
+            }
+        }
+        for (int i = 0; i < stashSize; i++) {
+            oldKeys[count] = stashKeys[i];
+            oldValues[count] = stashValues[i];
+            oldHashes[count] = stashHashes[i];
+            count++;
+        }
+        boolean placed = false;
+        while (!placed) {
+            allocate(length);
+            placed = true;
+            for (int i = 0; i < count && placed; i++) {
+                placed = place(oldHashes[i], oldKeys[i], oldValues[i]);
+            }
+            if (!placed && keys.length > 8 * count) {
+                stashLimit = 2 * stashLimit;
+                length = keys.length;
+            } else if (!placed) {
+                length = (2 * keys.length) + 1;
+            }
+        }
+        homelessKey = null;
+        homelessValue = null;
+    }
+
+    /**
+     * Helper method to allocate an empty table with room for at least the
+     * given number of entries, and an empty stash.
+     *
+     * @param length the minimum number of slots
+     */
+    private void allocate(int length) {
+        buckets = (length + BUCKET_SIZE - 1) / BUCKET_SIZE;
+        keys = new Object[buckets * BUCKET_SIZE];
+        values = new Object[buckets * BUCKET_SIZE];
+        hashes = new int[buckets * BUCKET_SIZE];
+        stashKeys = new Object[stashLimit];
+        stashValues = new Object[stashLimit];
+        stashHashes = new int[stashLimit];
+        stashSize = 0;
+    }
+
+    /**
+     * Helper method to find the first bucket of a hash code.
+     *
+     * @param hash the hash code of the key
+     * @return the first bucket of the key
+     */
+    private int firstBucket(int hash) {
+        int h = hash * 0x9E3779B9;
+        h ^= h >>> 16;
+        return (h & Integer.MAX_VALUE) % buckets;
+    }
+
+    /**
+     * Helper method to find the second bucket of a hash code, which is
+     * mixed independently of the first and never equal to it unless the
+     * table has a single bucket.
+     *
+     * @param hash the hash code of the key
+     * @param first the first bucket of the key
+     * @return the second bucket of the key
+     */
+    private int secondBucket(int hash, int first) {
+        int h = hash * 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        int second = (h & Integer.MAX_VALUE) % buckets;
+        return second == first ? (first + 1) % buckets : second;
+    }
+
+    /**
+     * Helper method to draw a pseudo-random number for picking the residents
+     * to kick out, using a xorshift generator.
+     *
+     * @return the next pseudo-random number
+     */
+    private int nextRandom() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
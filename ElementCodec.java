@@ -0,0 +1,30 @@
+import java.io.IOException;
+
+/**
+ * Converts values of some type to and from the variable-length records of a
+ * snapshot stream.
+ *
+ * @param <T> the type of value being converted
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public interface ElementCodec<T> {
+
+    /**
+     * Writes a value to a snapshot.
+     *
+     * @param out the snapshot being written
+     * @param value the value to write, which is never null
+     * @throws IOException if the snapshot cannot be written
+     */
+    void write(SnapshotOutput out, T value) throws IOException;
+
+    /**
+     * Reads a value written by {@code write} from a snapshot.
+     *
+     * @param in the snapshot being read
+     * @return the value that was read, which must not be null
+     * @throws IOException if the snapshot cannot be read or is malformed
+     */
+    T read(SnapshotInput in) throws IOException;
+}
@@ -0,0 +1,92 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codecs for the types most often stored in snapshots. Integers are written
+ * as zigzag varints, so that values of small magnitude take a single byte
+ * whatever their sign.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public final class ElementCodecs {
+
+    /**
+     * Writes an Integer as a zigzag varint of 1 to 5 bytes.
+     */
+    public static final ElementCodec<Integer> INT =
+            new ElementCodec<Integer>() {
+                @Override
+                public void write(SnapshotOutput out, Integer value)
+                        throws IOException {
+                    out.writeVarInt((value << 1) ^ (value >> 31));
+                }
+
+                @Override
+                public Integer read(SnapshotInput in) throws IOException {
+                    int zigzag = in.readVarInt();
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            };
+
+    /**
+     * Writes a Long as a zigzag varint of 1 to 10 bytes.
+     */
+    public static final ElementCodec<Long> LONG =
+            new ElementCodec<Long>() {
+                @Override
+                public void write(SnapshotOutput out, Long value)
+                        throws IOException {
+                    out.writeVarLong((value << 1) ^ (value >> 63));
+                }
+
+                @Override
+                public Long read(SnapshotInput in) throws IOException {
+                    long zigzag = in.readVarLong();
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            };
+
+    /**
+     * Writes a Double as the 8 bytes of its bit pattern.
+     */
+    public static final ElementCodec<Double> DOUBLE =
+            new ElementCodec<Double>() {
+                @Override
+                public void write(SnapshotOutput out, Double value)
+                        throws IOException {
+                    out.writeLong(Double.doubleToRawLongBits(value));
+                }
+
+                @Override
+                public Double read(SnapshotInput in) throws IOException {
+                    return Double.longBitsToDouble(in.readLong());
+                }
+            };
+
+    /**
+     * Writes a String as a varint byte count followed by its UTF-8 bytes.
+     */
+    public static final ElementCodec<String> STRING =
+            new ElementCodec<String>() {
+                @Override
+                public void write(SnapshotOutput out, String value)
+                        throws IOException {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeVarInt(bytes.length);
+                    out.writeBytes(bytes);
+                }
+
+                @Override
+                public String read(SnapshotInput in) throws IOException {
+                    return new String(in.readBytes(in.readVarInt()),
+                            StandardCharsets.UTF_8);
+                }
+            };
+
+    /**
+     * This class only holds constants and is never instantiated.
+     */
+    private ElementCodecs() {
+    }
+}
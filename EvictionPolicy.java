@@ -0,0 +1,30 @@
+/**
+ * The policies a BoundedCache can use to pick the entry to evict once it
+ * holds more than its maximum.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public enum EvictionPolicy {
+
+    /**
+     * Evict the entry that was read or written the longest time ago.
+     */
+    LRU,
+
+    /**
+     * Evict the entry that was inserted the longest time ago, no matter how
+     * often it has been read since.
+     */
+    FIFO,
+
+    /**
+     * Evict the least recently used entry, but only admit a new entry in its
+     * place if the new key has been requested more often than the victim.
+     * Request counts are estimated by a small count-min sketch whose counters
+     * are periodically halved, so that the cache adapts when the popular
+     * keys change. This keeps one-off keys from flushing out a hot working
+     * set, as in TinyLFU.
+     */
+    TINY_LFU
+}
@@ -0,0 +1,414 @@
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * An implementation of HashMap whose entries expire once their time to live
+ * has passed.
+ *
+ * Every entry carries the time it expires at, and {@code get} and
+ * {@code containsKey} never report an entry past that time. Expired entries
+ * are cleaned up by a hierarchical timing wheel instead of a scan over the
+ * whole table. The wheel has five levels of 64 buckets each; a bucket of the
+ * lowest level spans 2^20 nanoseconds (about a millisecond), and a bucket of
+ * each higher level spans a whole turn of the level below it. An entry is
+ * linked into the bucket of the lowest level whose turn reaches its expiry.
+ * When the clock advances, only the buckets it passed are visited: their
+ * expired entries are removed and the rest cascade down to a finer level.
+ * The clock is advanced by every operation of the map, so cleanup costs
+ * time proportional to the expired entries plus the buckets passed over.
+ *
+ * Time is read from a ticker returning nanoseconds, which defaults to
+ * {@code System.nanoTime} and can be replaced for testing.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class ExpiringHashMap<K, V> implements HashMapInterface<K, V> {
+
+    private static final int LEVELS = 5;
+    private static final int BUCKETS = 64;
+    private static final int[] SHIFTS = {20, 26, 32, 38, 44};
+
+    private final HashMap<K, Node<K, V>> index;
+    private final long defaultTtl;
+    private final LongSupplier ticker;
+    private final long origin;
+    // wheel[level][bucket] is the sentinel of a circular list of entries
+    private final Node<K, V>[][] wheel;
+    private long nanos;
+
+    /**
+     * Create an expiring map with no entries, timed by
+     * {@code System.nanoTime}.
+     *
+     * @param defaultTtl the time to live of entries added by {@code put}
+     * without one
+     * @param unit the unit of defaultTtl
+     * @throws IllegalArgumentException if defaultTtl is non-positive or unit
+     * is null
+     */
+    public ExpiringHashMap(long defaultTtl, TimeUnit unit) {
+        this(defaultTtl, unit, System::nanoTime);
+    }
+
+    /**
+     * Create an expiring map with no entries.
+     *
+     * @param defaultTtl the time to live of entries added by {@code put}
+     * without one
+     * @param unit the unit of defaultTtl
+     * @param ticker the source of the current time in nanoseconds, which
+     * must never go backwards
+     * @throws IllegalArgumentException if defaultTtl is non-positive or unit
+     * or ticker is null
+     */
+    public ExpiringHashMap(long defaultTtl, TimeUnit unit,
+                           LongSupplier ticker) {
+        if (defaultTtl <= 0 || unit == null || ticker == null) {
+            throw new IllegalArgumentException("The time to live must be "
+                    + "positive and the unit and ticker non-null, please use "
+                    + "a valid input.");
+        }
+        index = new HashMap<>();
+        this.defaultTtl = unit.toNanos(defaultTtl);
+        this.ticker = ticker;
+        origin = ticker.getAsLong();
+        nanos = 0;
+        wheel = ((Node<K, V>[][]) new Node[LEVELS][BUCKETS]);
+        for (int level = 0; level < LEVELS; level++) {
+            for (int i = 0; i < BUCKETS; i++) {
+                wheel[level][i] = new Node<>(null, null, 0);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The entry expires after the default time to live.
+     */
+    @Override
+    public V put(K key, V value) {
+        if (value == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or value is null"
+                    + ", please use a valid input.");
+        }
+        return put(key, value, defaultTtl, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Adds the given key-value pair to the map, to expire after the given
+     * time to live. If the key is already in the map, its value and expiry
+     * are replaced.
+     *
+     * @param key key to add into the HashMap
+     * @param value value to add into the HashMap
+     * @param ttl how long the entry lives
+     * @param unit the unit of ttl
+     * @throws IllegalArgumentException if key, value or unit is null, or ttl
+     * is non-positive
+     * @return the value that was replaced, or null if the key was absent or
+     * its entry had expired
+     */
+    public V put(K key, V value, long ttl, TimeUnit unit) {
+        if (value == null || key == null || unit == null) {
+            throw new IllegalArgumentException("Input key, value and/or unit "
+                    + "is null, please use a valid input.");
+        } else if (ttl <= 0) {
+            throw new IllegalArgumentException("The time to live must be "
+                    + "positive, please use a valid input.");
+        }
+        advance();
+        long expiry = nanos + unit.toNanos(ttl);
+        // Saturate instead of wrapping around for huge times to live
+        if (expiry < nanos) {
+            expiry = Long.MAX_VALUE;
+        }
+        Node<K, V> node = index.getOrDefault(key, null);
+        V rep = null;
+        if (node == null) {
+            node = new Node<>(key, value, expiry);
+            index.put(key, node);
+        } else {
+            // Case 1: Overwrite a live entry
+            // Case 2: Revive an entry that expired within the current tick
+            if (node.expiry > nanos) {
+                rep = node.value;
+            }
+            unlink(node);
+            node.value = value;
+            node.expiry = expiry;
+        }
+        schedule(node);
+        return rep;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        advance();
+        Node<K, V> node = liveNode(key);
+        if (node == null) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        index.remove(key);
+        unlink(node);
+        return node.value;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        advance();
+        Node<K, V> node = liveNode(key);
+        if (node == null) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        advance();
+        return liveNode(key) != null;
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+        for (int level = 0; level < LEVELS; level++) {
+            for (Node<K, V> sentinel : wheel[level]) {
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Entries that expired within the current tick of the wheel (about a
+     * millisecond) may still be counted.
+     */
+    @Override
+    public int size() {
+        advance();
+        return index.size();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        advance();
+        Set<K> set = new HashSet<>();
+        for (MapEntry<K, Node<K, V>> entry : index.entrySet()) {
+            if (entry.getValue().expiry > nanos) {
+                set.add(entry.getKey());
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public List<V> values() {
+        advance();
+        LinkedList<V> list = new LinkedList<>();
+        for (Node<K, V> node : index.values()) {
+            if (node.expiry > nanos) {
+                list.addLast(node.value);
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void resizeBackingTable(int length) {
+        index.resizeBackingTable(length);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The returned array is a copy of the underlying HashMap's table with
+     * the wheel's nodes replaced by their keys and values. Entries that
+     * expired within the current tick may still be listed.
+     */
+    @Override
+    public LinkedList<MapEntry<K, V>>[] getTable() {
+        advance();
+        LinkedList<MapEntry<K, Node<K, V>>>[] table = index.getTable();
+        LinkedList<MapEntry<K, V>>[] copy = ((LinkedList<MapEntry<K, V>>[])
+                new LinkedList[table.length]);
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] != null) {
+                copy[i] = new LinkedList<>();
+                for (MapEntry<K, Node<K, V>> entry : table[i]) {
+                    copy[i].addLast(new MapEntry<>(entry.getKey(),
+                            entry.getValue().value));
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Advances the wheel to the current time, removing every entry that has
+     * expired by then. Every other operation does this too, so it only needs
+     * to be called to release expired entries while the map is idle.
+     */
+    public void cleanUp() {
+        advance();
+    }
+
+    /**
+     * Helper method to find the entry of a key, removing it if it has
+     * expired but has not been cleaned up yet.
+     *
+     * @param key the key to search for
+     * @return the entry of the key, or null if it is absent or expired
+     */
+    private Node<K, V> liveNode(K key) {
+        Node<K, V> node = index.getOrDefault(key, null);
+        if (node != null && node.expiry <= nanos) {
+            index.remove(key);
+            unlink(node);
+            return null;
+        }
+        return node;
+    }
+
+    /**
+     * Helper method to move the wheel to the current time. For every level
+     * whose tick has changed, the buckets passed over are emptied: their
+     * expired entries are removed from the map and the others are scheduled
+     * again, which moves them down to a finer level.
+     */
+    private void advance() {
+        long previous = nanos;
+        long now = ticker.getAsLong() - origin;
+        if (now <= previous) {
+            return;
+        }
+        nanos = now;
+        for (int level = 0; level < LEVELS; level++) {
+            long previousTicks = previous >>> SHIFTS[level];
+            long ticks = now >>> SHIFTS[level];
+            if (ticks == previousTicks) {
+                break;
+            }
+            int count = (int) Math.min(ticks - previousTicks + 1, BUCKETS);
+            for (int i = 0; i < count; i++) {
+                int bucket = (int) ((previousTicks + i) & (BUCKETS - 1));
+                expire(wheel[level][bucket]);
+            }
+        }
+    }
+
+    /**
+     * Helper method to empty a bucket. The list is detached from its
+     * sentinel first, so entries scheduled back into the same bucket are
+     * not visited twice.
+     *
+     * @param sentinel the sentinel of the bucket
+     */
+    private void expire(Node<K, V> sentinel) {
+        Node<K, V> cur = sentinel.next;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        while (cur != sentinel) {
+            Node<K, V> next = cur.next;
+            cur.prev = null;
+            cur.next = null;
+            if (cur.expiry <= nanos) {
+                index.remove(cur.key);
+            } else {
+                schedule(cur);
+            }
+            cur = next;
+        }
+    }
+
+    /**
+     * Helper method to link an entry into the bucket of the lowest level
+     * whose turn, starting at the current time, reaches the entry's expiry.
+     * Expiries beyond the reach of the top level wrap around it and are
+     * scheduled again when their bucket comes up.
+     *
+     * @param node the entry to schedule
+     */
+    private void schedule(Node<K, V> node) {
+        long duration = node.expiry - nanos;
+        int level = 0;
+        while (level < LEVELS - 1
+                && duration >= (1L << SHIFTS[level + 1])) {
+            level++;
+        }
+        int bucket = (int) ((node.expiry >>> SHIFTS[level]) & (BUCKETS - 1));
+        Node<K, V> sentinel = wheel[level][bucket];
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    /**
+     * Helper method to take an entry out of its bucket, if it is in one.
+     *
+     * @param node the entry to unlink
+     */
+    private void unlink(Node<K, V> node) {
+        if (node.next != null) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+    /**
+     * An entry of the map, which is also a link of a bucket of the wheel.
+     * The sentinel of a bucket is a node without key that links to itself
+     * when the bucket is empty.
+     */
+    private static final class Node<K, V> {
+        private final K key;
+        private V value;
+        private long expiry;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        /**
+         * Create an unlinked entry, or an empty bucket if key is null.
+         *
+         * @param key the key of the entry
+         * @param value the value of the entry
+         * @param expiry the time the entry expires at, relative to the
+         * creation of the map
+         */
+        private Node(K key, V value, long expiry) {
+            this.key = key;
+            this.value = value;
+            this.expiry = expiry;
+            if (key == null) {
+                prev = this;
+                next = this;
+            }
+        }
+    }
+}
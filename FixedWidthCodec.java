@@ -0,0 +1,45 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Converts values of some type to and from a fixed number of bytes, so that
+ * they can be stored in flat slots outside of the Java heap.
+ *
+ * Two values that are equal must be written as the same bytes, since stored
+ * keys are compared and hashed byte by byte rather than through
+ * {@code equals} and {@code hashCode}. The bytes are kept in files, so they
+ * must also be the same in every run of the program, and must not depend on
+ * identity hash codes or anything else chosen per process.
+ *
+ * @param <T> the type of value being converted
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public interface FixedWidthCodec<T> {
+
+    /**
+     * Returns the number of bytes every value is written as.
+     *
+     * @return the width of a value in bytes, which is always positive
+     */
+    int width();
+
+    /**
+     * Writes a value at an absolute offset of a buffer, without moving the
+     * buffer's position.
+     *
+     * @param buffer the buffer to write to
+     * @param offset the offset of the first byte to write
+     * @param value the value to write, which is never null
+     */
+    void write(ByteBuffer buffer, int offset, T value);
+
+    /**
+     * Reads a value from an absolute offset of a buffer, without moving the
+     * buffer's position.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the first byte to read
+     * @return the value that was read
+     */
+    T read(ByteBuffer buffer, int offset);
+}
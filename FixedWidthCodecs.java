@@ -0,0 +1,83 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Codecs for the boxed primitive types most often used as fixed-width keys
+ * and values.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public final class FixedWidthCodecs {
+
+    /**
+     * Writes an Integer as 4 bytes.
+     */
+    public static final FixedWidthCodec<Integer> INT =
+            new FixedWidthCodec<Integer>() {
+                @Override
+                public int width() {
+                    return Integer.BYTES;
+                }
+
+                @Override
+                public void write(ByteBuffer buffer, int offset,
+                                  Integer value) {
+                    buffer.putInt(offset, value);
+                }
+
+                @Override
+                public Integer read(ByteBuffer buffer, int offset) {
+                    return buffer.getInt(offset);
+                }
+            };
+
+    /**
+     * Writes a Long as 8 bytes.
+     */
+    public static final FixedWidthCodec<Long> LONG =
+            new FixedWidthCodec<Long>() {
+                @Override
+                public int width() {
+                    return Long.BYTES;
+                }
+
+                @Override
+                public void write(ByteBuffer buffer, int offset, Long value) {
+                    buffer.putLong(offset, value);
+                }
+
+                @Override
+                public Long read(ByteBuffer buffer, int offset) {
+                    return buffer.getLong(offset);
+                }
+            };
+
+    /**
+     * Writes a Double as the 8 bytes of its raw bit pattern. All NaNs are
+     * collapsed into one, so that equal Doubles have equal bytes.
+     */
+    public static final FixedWidthCodec<Double> DOUBLE =
+            new FixedWidthCodec<Double>() {
+                @Override
+                public int width() {
+                    return Double.BYTES;
+                }
+
+                @Override
+                public void write(ByteBuffer buffer, int offset,
+                                  Double value) {
+                    buffer.putLong(offset, Double.doubleToLongBits(value));
+                }
+
+                @Override
+                public Double read(ByteBuffer buffer, int offset) {
+                    return Double.longBitsToDouble(buffer.getLong(offset));
+                }
+            };
+
+    /**
+     * This class only holds constants and is never instantiated.
+     */
+    private FixedWidthCodecs() {
+    }
+}
@@ -1,21 +1,103 @@
-import java.util.HashSet;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.List;
+import java.util.Map;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Your implementation of HashMap.
+ *
+ * By default the backing table is regrown in one go. In incremental resize
+ * mode, regrowing only allocates the new table: the old one is kept alive
+ * and its buckets are migrated a few at a time by subsequent puts and
+ * removes, so that no single put has to rehash the whole map. While a
+ * migration is in progress every entry lives in exactly one of the two
+ * tables, and lookups consult both.
+ *
+ * The lengths of the backing table and the way keys are compressed into it
+ * are decided by a TableSizing policy, which defaults to the 2n + 1 growth
+ * and modulo indexing of HashMapInterface.
+ *
+ * A chain that grows past {@code TREEIFY_THRESHOLD} entries whose keys are
+ * all of the same Comparable class is converted into a tree bin: an AVL tree
+ * ordered by key, which keeps get, put, remove and containsKey O(log n) in
+ * that bucket even under poorly distributed or adversarial hash codes. The
+ * bucket of a tree bin holds no chain; the bin is converted back into a
+ * chain once it shrinks below {@code UNTREEIFY_THRESHOLD} entries. Keys must
+ * have a compareTo that is consistent with equals for their bucket to be
+ * treeified.
+ *
+ * An optional membership filter (a BlockedBloomFilter over the hash codes
+ * of the keys) can be enabled to answer most lookups of absent keys without
+ * touching the table. Keys are added to it as they are added to the map, a
+ * regrown table gets a new filter sized for it, and since removed keys
+ * cannot be taken out of the filter, it is rebuilt once the removed keys
+ * outnumber the live ones. While an incremental resize is in progress the
+ * new filter is still being filled, so it is not consulted.
+ *
+ * Statistics on bucket searches and resizes can be enabled to find out
+ * whether slow lookups come from poorly distributed hash codes. While they
+ * are disabled, collecting them costs a single null check per search. The
+ * chain length histogram and the hash distribution of each class of key
+ * are computed on demand and are always available.
  * 
  * @author Nick Liccini
  * @version 1.0
  */
 public class HashMap<K, V> implements HashMapInterface<K, V> {
 
-    // Do not make any new instance variables.
+    /**
+     * The number of old buckets migrated by each operation while an
+     * incremental resize is in progress. Since the table more than doubles,
+     * this finishes every migration long before the next resize is due.
+     */
+    private static final int MIGRATION_STEP = 4;
+
+    /**
+     * Chains longer than this are converted into tree bins when possible.
+     */
+    private static final int TREEIFY_THRESHOLD = 8;
+
+    /**
+     * Tree bins smaller than this are converted back into chains. It is
+     * lower than {@code TREEIFY_THRESHOLD} so that a bucket hovering around
+     * the threshold does not flip back and forth.
+     */
+    private static final int UNTREEIFY_THRESHOLD = 6;
+
     private LinkedList<MapEntry<K, V>>[] backingTable;
     private int size;
+    private final boolean incrementalResize;
+    private final TableSizing sizing;
+    // The table being migrated away from, or null if no resize is pending
+    private LinkedList<MapEntry<K, V>>[] oldTable;
+    private int migrateIndex;
+    // The number of structural changes, which callbacks must not make
+    private int modCount;
+    // The tree bins of each table by bucket, or null if a table has none
+    private TreeBin<K, V>[] treeBins;
+    private TreeBin<K, V>[] oldTreeBins;
+    // The membership filter of the keys, or null if it is disabled
+    private BlockedBloomFilter filter;
+    private int filterStale;
+    private long filterNegatives;
+    private long filterFalsePositives;
+    // The search and resize counters, or null if they are disabled
+    private HashMapStatistics statistics;
+    private Consumer<? super HashMapStatistics> statisticsListener;
 
     /**
      * Create a hash map with no entries. The backing array has an initial
@@ -38,8 +120,45 @@ public class HashMap<K, V> implements HashMapInterface<K, V> {
      * @param initialCapacity initial capacity of the backing array
      */
     public HashMap(int initialCapacity) {
+        this(initialCapacity, false);
+    }
+
+    /**
+     * Create a hash map with no entries. The backing array has an initial
+     * capacity of {@code initialCapacity}.
+     *
+     * You may assume {@code initialCapacity} will always be positive.
+     *
+     * @param initialCapacity initial capacity of the backing array
+     * @param incrementalResize whether to migrate entries into a regrown
+     * table a few buckets at a time rather than all at once
+     */
+    public HashMap(int initialCapacity, boolean incrementalResize) {
+        this(initialCapacity, incrementalResize, new OddTableSizing());
+    }
+
+    /**
+     * Create a hash map with no entries. The backing array has the length
+     * the sizing policy picks for {@code initialCapacity}.
+     *
+     * You may assume {@code initialCapacity} will always be positive.
+     *
+     * @param initialCapacity initial capacity of the backing array
+     * @param incrementalResize whether to migrate entries into a regrown
+     * table a few buckets at a time rather than all at once
+     * @param sizing the policy deciding the table lengths and indexing
+     * @throws IllegalArgumentException if sizing is null
+     */
+    public HashMap(int initialCapacity, boolean incrementalResize,
+                   TableSizing sizing) {
+        if (sizing == null) {
+            throw new IllegalArgumentException("Input sizing policy is null, "
+                    + "please use a valid input.");
+        }
+        this.sizing = sizing;
+        this.incrementalResize = incrementalResize;
         backingTable = ((LinkedList<MapEntry<K, V>>[])
-                new LinkedList[initialCapacity]);
+                new LinkedList[sizing.tableLength(initialCapacity)]);
         size = 0;
     }
 
@@ -49,62 +168,323 @@ public class HashMap<K, V> implements HashMapInterface<K, V> {
             throw new IllegalArgumentException("Input key and/or value is null"
                     + ", please use a valid input.");
         }
-        // If the load factor will be exceeded from this add, resize the table
-        if (((size + 1) / ((double) backingTable.length)) > MAX_LOAD_FACTOR) {
-            resizeBackingTable((2 * backingTable.length) + 1);
+        int ind = locateBucket(key, true);
+        // Case 1: An entry with this key already exists, so replace its value
+        MapEntry<K, V> entry = findInBucket(backingTable, treeBins, ind, key);
+        if (entry != null) {
+            V rep = entry.getValue();
+            // Use entry.setValue bc this is O(1)
+            entry.setValue(value);
+            return rep;
         }
-        int ind = Math.abs(key.hashCode()) % backingTable.length;
-        // Case 1: There is an existing linked list at that index
-        if (backingTable[ind] != null) {
-            // If an entry with this key already exists, replace its value
-            Iterator<MapEntry<K, V>> iter = backingTable[ind].iterator();
-            while (iter.hasNext()) {
-                MapEntry<K, V> entry = iter.next();
-                if (entry.getKey().equals(key)) {
-                    V rep = entry.getValue();
-                    // Use entry.setValue bc this is O(1)
-                    entry.setValue(value);
-                    return rep;
-                }
+        // Case 2: Add the entry to the front of the chain, or to its tree bin
+        addEntry(ind, new MapEntry<>(key, value));
+        size++;
+        return null;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        MapEntry<K, V> entry = removeFromBucket(locateBucket(key, false), key);
+        if (entry == null) {
+            // Key is not in the external chain or the table has no list at ind
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        return entry.getValue();
+    }
+
+    /**
+     * Adds every entry of the given map to this map, replacing the values
+     * of keys that are already present.
+     *
+     * The table is regrown at most once, straight to the length it would
+     * have reached after adding the entries one at a time, so no entry is
+     * rehashed more than once. Duplicate keys are counted as new while
+     * sizing, so the table may end up larger than needed if many of the
+     * keys are already present.
+     *
+     * @param map the entries to add
+     * @throws IllegalArgumentException if map is null or holds a null key or
+     * value, in which case this map is left unchanged
+     */
+    public void putAll(Map<? extends K, ? extends V> map) {
+        if (map == null) {
+            throw new IllegalArgumentException("Input map is null, please "
+                    + "use a valid input.");
+        }
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new IllegalArgumentException("Input map contains a null "
+                        + "key and/or value, please use a valid input.");
             }
-            // If not, then there is a collision, so add the entry to the front
-            backingTable[ind].addFirst(new MapEntry<>(key, value));
-            size++;
-            return null;
-            // Case 2: Create a new linked list since this is the first elt here
+        }
+        presize(map.size());
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            putPresized(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Adds the entries {@code keys[i] -> values[i]} to this map, replacing
+     * the values of keys that are already present. A key that appears more
+     * than once ends up with its last value.
+     *
+     * The table is regrown at most once, as in {@code putAll(Map)}.
+     *
+     * @param keys the keys to add
+     * @param values the values to add, one per key
+     * @throws IllegalArgumentException if either array is null, they differ
+     * in length, or either holds a null, in which case this map is left
+     * unchanged
+     */
+    public void putAll(K[] keys, V[] values) {
+        if (keys == null || values == null || keys.length != values.length) {
+            throw new IllegalArgumentException("Input arrays are null or of "
+                    + "different lengths, please use a valid input.");
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null || values[i] == null) {
+                throw new IllegalArgumentException("Input arrays contain a "
+                        + "null key and/or value, please use a valid input.");
+            }
+        }
+        presize(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            putPresized(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Helper method to regrow the table once so that the given number of
+     * new entries fits without exceeding the load factor, and to finish any
+     * pending migration so that the batch only touches the current table.
+     *
+     * @param incoming the number of entries about to be added
+     */
+    private void presize(int incoming) {
+        long needed = (long) size + incoming;
+        int length = backingTable.length;
+        while ((needed / (double) length) > MAX_LOAD_FACTOR) {
+            int grown = sizing.grow(length);
+            if (grown <= length) {
+                break;
+            }
+            length = grown;
+        }
+        if (length != backingTable.length) {
+            resizeBackingTable(length);
+        }
+        finishMigration();
+    }
+
+    /**
+     * Helper method to put an entry into a table that is known to have room
+     * for it and has no migration pending, skipping the load factor check.
+     *
+     * @param key the key to add
+     * @param value the value to add
+     */
+    private void putPresized(K key, V value) {
+        int ind = indexFor(key, backingTable.length);
+        MapEntry<K, V> entry = findInBucket(backingTable, treeBins, ind, key);
+        if (entry != null) {
+            entry.setValue(value);
         } else {
-            // If the index is empty, set the beginning of the linked list
-            backingTable[ind] = new LinkedList<>();
-            backingTable[ind].addFirst(new MapEntry<>(key, value));
+            addEntry(ind, new MapEntry<>(key, value));
             size++;
-            return null;
         }
     }
 
     @Override
-    public V remove(K key) {
+    public V getOrDefault(K key, V defaultValue) {
         if (key == null) {
             throw new IllegalArgumentException("Input key is null, please "
                     + "use a valid input.");
         }
-        int ind = Math.abs(key.hashCode()) % backingTable.length;
-        if (backingTable[ind] != null) {
+        MapEntry<K, V> entry = findEntry(key);
+        return entry == null ? defaultValue : entry.getValue();
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        if (value == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or value is null"
+                    + ", please use a valid input.");
+        }
+        int ind = locateBucket(key, true);
+        MapEntry<K, V> entry = findInBucket(backingTable, treeBins, ind, key);
+        if (entry != null) {
+            return entry.getValue();
+        }
+        addEntry(ind, new MapEntry<>(key, value));
+        size++;
+        return null;
+    }
+
+    @Override
+    public V computeIfAbsent(K key,
+                             Function<? super K, ? extends V> function) {
+        if (function == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or function is "
+                    + "null, please use a valid input.");
+        }
+        int ind = locateBucket(key, true);
+        MapEntry<K, V> entry = findInBucket(backingTable, treeBins, ind, key);
+        if (entry != null) {
+            return entry.getValue();
+        }
+        int before = modCount;
+        V value = function.apply(key);
+        checkUnmodified(before);
+        if (value != null) {
+            addEntry(ind, new MapEntry<>(key, value));
+            size++;
+        }
+        return value;
+    }
+
+    @Override
+    public V compute(K key,
+                     BiFunction<? super K, ? super V, ? extends V> function) {
+        if (function == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or function is "
+                    + "null, please use a valid input.");
+        }
+        int ind = locateBucket(key, true);
+        MapEntry<K, V> entry = findInBucket(backingTable, treeBins, ind, key);
+        int before = modCount;
+        V value = function.apply(key, entry == null ? null : entry.getValue());
+        checkUnmodified(before);
+        return store(ind, key, entry, value);
+    }
+
+    @Override
+    public V merge(K key, V value,
+                   BiFunction<? super V, ? super V, ? extends V> function) {
+        if (value == null || key == null || function == null) {
+            throw new IllegalArgumentException("Input key, value and/or "
+                    + "function is null, please use a valid input.");
+        }
+        int ind = locateBucket(key, true);
+        MapEntry<K, V> entry = findInBucket(backingTable, treeBins, ind, key);
+        if (entry == null) {
+            addEntry(ind, new MapEntry<>(key, value));
+            size++;
+            return value;
+        }
+        int before = modCount;
+        V merged = function.apply(entry.getValue(), value);
+        checkUnmodified(before);
+        return store(ind, key, entry, merged);
+    }
+
+    /**
+     * Helper method to find the bucket of the current table that a key
+     * belongs in, first regrowing the table if an entry is about to be added
+     * and moving the key's bucket over if an incremental resize is pending.
+     * Afterwards the key can only be in the returned bucket.
+     *
+     * @param key the key being operated on
+     * @param adding whether an entry may be added for the key
+     * @return the index of the key's bucket in the current table
+     */
+    private int locateBucket(K key, boolean adding) {
+        // If the load factor will be exceeded from this add, resize the table
+        if (adding && ((size + 1) / ((double) backingTable.length))
+                > MAX_LOAD_FACTOR) {
+            resizeBackingTable(sizing.grow(backingTable.length));
+        }
+        if (oldTable != null) {
+            // Move the key's old bucket over so only the new table is touched
+            migrateBucket(indexFor(key, oldTable.length));
+            advanceMigration();
+        }
+        return indexFor(key, backingTable.length);
+    }
+
+    /**
+     * Helper method to apply the result of a remapping function to a bucket
+     * that has already been searched for the key.
+     *
+     * @param ind the index of the key's bucket
+     * @param key the key being remapped
+     * @param entry the entry holding the key, or null if it is absent
+     * @param value the new value, or null to remove the key
+     * @return the new value
+     */
+    private V store(int ind, K key, MapEntry<K, V> entry, V value) {
+        if (value == null) {
+            if (entry != null) {
+                removeFromBucket(ind, key);
+            }
+        } else if (entry != null) {
+            entry.setValue(value);
+        } else {
+            addEntry(ind, new MapEntry<>(key, value));
+            size++;
+        }
+        return value;
+    }
+
+    /**
+     * Helper method to make sure a function called back by this map did not
+     * change its structure, which would invalidate the bucket search that
+     * was done before calling it. Every add, remove, resize, treeify and
+     * untreeify counts as a change, so a function that removes one key and
+     * adds another is caught even though the size stays the same.
+     *
+     * @param expectedModCount the change count before calling the function
+     * @throws java.util.ConcurrentModificationException if the map changed
+     */
+    private void checkUnmodified(int expectedModCount) {
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException("The function modified "
+                    + "this map while it was being called.");
+        }
+    }
+
+    /**
+     * Helper method to remove the entry holding a key from one bucket of
+     * the current table.
+     *
+     * @param ind the index of the key's bucket
+     * @param key the key to remove
+     * @return the removed entry, or null if the key is not in the bucket
+     */
+    private MapEntry<K, V> removeFromBucket(int ind, K key) {
+        if (treeBins != null && treeBins[ind] != null) {
+            // Any entry for the key is in the tree bin
+            MapEntry<K, V> entry = treeBins[ind].remove(key);
+            if (entry != null) {
+                size--;
+                modCount++;
+                if (treeBins[ind].size() < UNTREEIFY_THRESHOLD) {
+                    untreeify(ind);
+                }
+                noteFilterRemoval();
+            }
+            return entry;
+        } else if (backingTable[ind] != null) {
             // The key is somewhere in the external chain
             Iterator<MapEntry<K, V>> iter = backingTable[ind].iterator();
             while (iter.hasNext()) {
                 MapEntry<K, V> entry = iter.next();
                 if (entry.getKey().equals(key)) {
-                    V rem = entry.getValue();
                     // Use iter.remove() bc this is an O(1) operation
                     iter.remove();
                     size--;
-                    return rem;
+                    modCount++;
+                    noteFilterRemoval();
+                    return entry;
                 }
             }
         }
-        // Key is not in the external chain or the table has no list at ind
-        throw new NoSuchElementException("The input key does not have a "
-                + "corresponding value in this map.");
+        return null;
     }
 
     @Override
@@ -113,16 +493,9 @@ public class HashMap<K, V> implements HashMapInterface<K, V> {
             throw new IllegalArgumentException("Input key is null, please "
                     + "use a valid input.");
         }
-        int ind = Math.abs(key.hashCode()) % backingTable.length;
-        if (backingTable[ind] != null) {
-            // The key is somewhere in the external chain
-            Iterator<MapEntry<K, V>> iter = backingTable[ind].iterator();
-            while (iter.hasNext()) {
-                MapEntry<K, V> entry = iter.next();
-                if (entry.getKey().equals(key)) {
-                    return entry.getValue();
-                }
-            }
+        MapEntry<K, V> entry = findEntry(key);
+        if (entry != null) {
+            return entry.getValue();
         }
         // Key is not in the external chain or the table has no list at ind
         throw new NoSuchElementException("The input key does not have a "
@@ -135,26 +508,22 @@ public class HashMap<K, V> implements HashMapInterface<K, V> {
             throw new IllegalArgumentException("Input key is null, please "
                     + "use a valid input.");
         }
-        int ind = Math.abs(key.hashCode()) % backingTable.length;
-        if (backingTable[ind] != null) {
-            // The key is somewhere in the external chain
-            Iterator<MapEntry<K, V>> iter = backingTable[ind].iterator();
-            while (iter.hasNext()) {
-                MapEntry<K, V> entry = iter.next();
-                if (entry.getKey().equals(key)) {
-                    return true;
-                }
-            }
-        }
-        // Key is not in the external chain or the table has no list at ind
-        return false;
+        return findEntry(key) != null;
     }
 
     @Override
     public void clear() {
         backingTable = ((LinkedList<MapEntry<K, V>>[])
-                new LinkedList[INITIAL_CAPACITY]);
+                new LinkedList[sizing.tableLength(INITIAL_CAPACITY)]);
         size = 0;
+        modCount++;
+        oldTable = null;
+        treeBins = null;
+        oldTreeBins = null;
+        if (filter != null) {
+            filter = new BlockedBloomFilter(filterCapacity());
+            filterStale = 0;
+        }
     }
 
     @Override
@@ -162,38 +531,100 @@ public class HashMap<K, V> implements HashMapInterface<K, V> {
         return size;
     }
 
+    /**
+     * Returns a live Set view of the keys contained in this map.
+     *
+     * The view is backed by the table itself rather than copied, so it
+     * reflects later changes to the map, and iterating it walks the buckets
+     * in place without allocating per entry. Its spliterator splits by
+     * ranges of buckets, so the view can be streamed in parallel. The view
+     * cannot be modified, and the result of iterating it while the map is
+     * being modified is unspecified.
+     *
+     * @return set view of the keys in this map
+     */
     @Override
     public Set<K> keySet() {
-        Set<K> set = new HashSet<>();
-        int ind = 0;
-        while (ind < backingTable.length) {
-            if (backingTable[ind] != null) {
-                Iterator<MapEntry<K, V>> iter = backingTable[ind].iterator();
-                while (iter.hasNext()) {
-                    set.add(iter.next().getKey());
-                }
-            }
-            ind++;
-        }
-        return set;
+        return new KeySetView();
     }
 
+    /**
+     * Returns a live List view of the values contained in this map,
+     * beginning with the first index of the backing array.
+     *
+     * Like {@code keySet}, the view is backed by the table and cannot be
+     * modified. Iterating it is O(n) overall, while {@code get(index)} has
+     * to walk the table up to the index.
+     *
+     * @return list view of the values in this map
+     */
     @Override
     public List<V> values() {
-        List<V> list = new LinkedList<>();
-        int ind = 0;
-        while (ind < backingTable.length) {
-            if (backingTable[ind] != null) {
-                Iterator<MapEntry<K, V>> iter = backingTable[ind].iterator();
-                while (iter.hasNext()) {
-                    ((LinkedList<V>) list).addLast(iter.next().getValue());
+        return new ValuesView();
+    }
+
+    /**
+     * Returns a live Set view of the entries contained in this map.
+     *
+     * Like {@code keySet}, the view is backed by the table and cannot be
+     * modified. The entries are the ones stored in the map, so setting the
+     * value of an entry updates the map.
+     *
+     * @return set view of the entries in this map
+     */
+    public Set<MapEntry<K, V>> entrySet() {
+        return new EntrySetView();
+    }
+
+    /**
+     * Performs the given action on every key-value pair of this map, in the
+     * same order as the views iterate them, without creating a view.
+     *
+     * @param action the action to perform on each pair
+     * @throws IllegalArgumentException if action is null
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Input action is null, please "
+                    + "use a valid input.");
+        }
+        forEachInTable(backingTable, treeBins, action);
+        if (oldTable != null) {
+            forEachInTable(oldTable, oldTreeBins, action);
+        }
+    }
+
+    /**
+     * Helper method to perform an action on every pair of one table.
+     *
+     * @param table the table to walk through
+     * @param bins the tree bins of the table, possibly null
+     * @param action the action to perform on each pair
+     */
+    private void forEachInTable(LinkedList<MapEntry<K, V>>[] table,
+                                TreeBin<K, V>[] bins,
+                                BiConsumer<? super K, ? super V> action) {
+        for (int ind = 0; ind < table.length; ind++) {
+            if (bins != null && bins[ind] != null) {
+                for (MapEntry<K, V> entry : bins[ind].entries()) {
+                    action.accept(entry.getKey(), entry.getValue());
+                }
+            } else if (table[ind] != null) {
+                for (MapEntry<K, V> entry : table[ind]) {
+                    action.accept(entry.getKey(), entry.getValue());
                 }
             }
-            ind++;
         }
-        return list;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The length is first rounded up to one the sizing policy supports. In
+     * incremental resize mode, any migration still in progress is
+     * finished first, and the entries of the current table are then left in
+     * place to be migrated by subsequent operations.
+     */
     @Override
     public void resizeBackingTable(int length) {
         if (length <= 0) {
@@ -201,30 +632,946 @@ public class HashMap<K, V> implements HashMapInterface<K, V> {
                     + "positive and therefore is invalid. Please use an input "
                     + "greater than 0.");
         }
-        LinkedList<MapEntry<K, V>>[] newTable = ((LinkedList<MapEntry<K, V>>[])
-                new LinkedList[length]);
-        int i = 0;
-        int ind;
-        while (i < backingTable.length) {
-            if (backingTable[i] != null) {
-                Iterator<MapEntry<K, V>> iter = backingTable[i].iterator();
-                while (iter.hasNext()) {
-                    MapEntry<K, V> entry = iter.next();
-                    ind = Math.abs(entry.getKey().hashCode()) % newTable.length;
-                    if (newTable[ind] == null) {
-                        newTable[ind] = new LinkedList<>();
+        long start = statistics == null ? 0 : System.nanoTime();
+        finishMigration();
+        modCount++;
+        oldTable = backingTable;
+        oldTreeBins = treeBins;
+        migrateIndex = 0;
+        backingTable = ((LinkedList<MapEntry<K, V>>[])
+                new LinkedList[sizing.tableLength(length)]);
+        treeBins = null;
+        if (filter != null) {
+            // Migrated entries go through addEntry, which fills the filter
+            filter = new BlockedBloomFilter(filterCapacity());
+            filterStale = 0;
+        }
+        if (!incrementalResize) {
+            finishMigration();
+        }
+        if (statistics != null) {
+            statistics.recordResize(System.nanoTime() - start);
+            if (statisticsListener != null) {
+                statisticsListener.accept(statistics);
+            }
+        }
+    }
+
+    /**
+     * Enables or disables the search and resize statistics. Enabling them
+     * starts every counter from 0; disabling them drops the counters.
+     *
+     * @param enabled whether the map should collect statistics
+     */
+    public void setStatisticsEnabled(boolean enabled) {
+        statistics = enabled ? new HashMapStatistics() : null;
+    }
+
+    /**
+     * Returns the search and resize statistics collected since they were
+     * enabled. The returned object keeps being updated by the map.
+     *
+     * @return the statistics of the map
+     * @throws IllegalStateException if the statistics are disabled
+     */
+    public HashMapStatistics getStatistics() {
+        if (statistics == null) {
+            throw new IllegalStateException("The statistics are not "
+                    + "enabled.");
+        }
+        return statistics;
+    }
+
+    /**
+     * Sets a callback that is handed the statistics after every resize
+     * while they are enabled, e.g. to export them to a metrics system.
+     *
+     * @param listener the callback, or null to remove it
+     */
+    public void setStatisticsListener(
+            Consumer<? super HashMapStatistics> listener) {
+        statisticsListener = listener;
+    }
+
+    /**
+     * Counts the buckets of the current table by the number of entries they
+     * hold, a tree bin counting as the entries in it. Entries still waiting
+     * to be migrated by an incremental resize are not counted.
+     *
+     * @return an array whose element i is the number of buckets holding i
+     * entries, with the longest bucket at the last index
+     */
+    public int[] chainLengthHistogram() {
+        int longest = 0;
+        for (int ind = 0; ind < backingTable.length; ind++) {
+            longest = Math.max(longest, bucketSize(ind));
+        }
+        int[] histogram = new int[longest + 1];
+        for (int ind = 0; ind < backingTable.length; ind++) {
+            histogram[bucketSize(ind)]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * Reports how the hash codes of each class of key spread over the
+     * current table, to tell which classes have a poor {@code hashCode}.
+     * Every key is placed by the bucket it has in the current table, even
+     * if it is still waiting to be migrated.
+     *
+     * @return one report per class of key, in the order the classes are
+     * first met while walking the map
+     */
+    public Map<Class<?>, HashMapStatistics.KeyClassReport> hashDistribution() {
+        Map<Class<?>, Set<Integer>> hashCodes = new LinkedHashMap<>();
+        Map<Class<?>, BitSet> buckets = new LinkedHashMap<>();
+        Map<Class<?>, Integer> counts = new LinkedHashMap<>();
+        for (MapEntry<K, V> entry : entrySet()) {
+            K key = entry.getKey();
+            Class<?> keyClass = key.getClass();
+            if (!counts.containsKey(keyClass)) {
+                hashCodes.put(keyClass, new HashSet<>());
+                buckets.put(keyClass, new BitSet(backingTable.length));
+                counts.put(keyClass, 0);
+            }
+            hashCodes.get(keyClass).add(key.hashCode());
+            buckets.get(keyClass).set(indexFor(key, backingTable.length));
+            counts.put(keyClass, counts.get(keyClass) + 1);
+        }
+        Map<Class<?>, HashMapStatistics.KeyClassReport> reports =
+                new LinkedHashMap<>();
+        for (Map.Entry<Class<?>, Integer> count : counts.entrySet()) {
+            Class<?> keyClass = count.getKey();
+            reports.put(keyClass, new HashMapStatistics.KeyClassReport(
+                    keyClass, count.getValue(),
+                    hashCodes.get(keyClass).size(),
+                    buckets.get(keyClass).cardinality(),
+                    backingTable.length));
+        }
+        return reports;
+    }
+
+    /**
+     * Helper method to find the number of entries in one bucket of the
+     * current table.
+     *
+     * @param ind the index of the bucket
+     * @return the number of entries in its chain or tree bin
+     */
+    private int bucketSize(int ind) {
+        if (treeBins != null && treeBins[ind] != null) {
+            return treeBins[ind].size();
+        }
+        return backingTable[ind] == null ? 0 : backingTable[ind].size();
+    }
+
+    /**
+     * Enables or disables the membership filter. Enabling it builds a new
+     * filter from every key in the map; disabling it drops the filter along
+     * with its statistics.
+     *
+     * @param enabled whether lookups should consult a membership filter
+     */
+    public void setFilterEnabled(boolean enabled) {
+        filterNegatives = 0;
+        filterFalsePositives = 0;
+        if (enabled) {
+            rebuildFilter();
+        } else {
+            filter = null;
+        }
+    }
+
+    /**
+     * Estimates the chance that the membership filter lets a lookup of an
+     * absent key through to the table, from how full the filter is. This
+     * includes the keys that were removed since the filter was last built.
+     *
+     * @return the estimated false-positive rate of the filter
+     * @throws IllegalStateException if the filter is disabled
+     */
+    public double estimatedFalsePositiveRate() {
+        if (filter == null) {
+            throw new IllegalStateException("The membership filter is not "
+                    + "enabled.");
+        }
+        return filter.estimatedFalsePositiveRate();
+    }
+
+    /**
+     * Returns the fraction of lookups of absent keys that the membership
+     * filter let through to the table, out of those it was consulted on
+     * since it was enabled.
+     *
+     * @return the observed false-positive rate, or 0 if the filter has not
+     * been consulted on an absent key yet
+     * @throws IllegalStateException if the filter is disabled
+     */
+    public double observedFalsePositiveRate() {
+        if (filter == null) {
+            throw new IllegalStateException("The membership filter is not "
+                    + "enabled.");
+        }
+        long misses = filterNegatives + filterFalsePositives;
+        return misses == 0 ? 0.0 : filterFalsePositives / (double) misses;
+    }
+
+    /**
+     * Helper method to build a new membership filter holding every key in
+     * either table.
+     */
+    private void rebuildFilter() {
+        filter = new BlockedBloomFilter(filterCapacity());
+        filterStale = 0;
+        for (MapEntry<K, V> entry : entrySet()) {
+            filter.add(entry.getKey().hashCode());
+        }
+    }
+
+    /**
+     * Helper method to record that a key was removed while its bits stay in
+     * the membership filter, rebuilding the filter once the removed keys
+     * outnumber the live ones. The rebuild costs O(n) once every n removes,
+     * so it is amortized O(1) per remove.
+     */
+    private void noteFilterRemoval() {
+        if (filter != null) {
+            filterStale++;
+            if (filterStale > Math.max(size, INITIAL_CAPACITY)) {
+                rebuildFilter();
+            }
+        }
+    }
+
+    /**
+     * Helper method to find the number of keys a membership filter for the
+     * current table has to hold, which is as many as the table can take
+     * before it is regrown.
+     *
+     * @return the capacity of the filter
+     */
+    private int filterCapacity() {
+        return (int) (backingTable.length * MAX_LOAD_FACTOR) + 1;
+    }
+
+    /**
+     * Helper method to find the entry holding a key without modifying
+     * either table. A pending old bucket is searched after the new one.
+     *
+     * @param key the key to search for
+     * @return the entry holding the key, or null if the key is not in the map
+     */
+    private MapEntry<K, V> findEntry(K key) {
+        boolean filtered = filter != null && oldTable == null;
+        if (filtered && !filter.mightContain(key.hashCode())) {
+            filterNegatives++;
+            return null;
+        }
+        MapEntry<K, V> entry = findInBucket(backingTable, treeBins,
+                indexFor(key, backingTable.length), key);
+        if (entry == null && oldTable != null) {
+            entry = findInBucket(oldTable, oldTreeBins,
+                    indexFor(key, oldTable.length), key);
+        }
+        if (filtered && entry == null) {
+            filterFalsePositives++;
+        }
+        return entry;
+    }
+
+    /**
+     * Helper method to search one bucket of a table for a key, using its
+     * tree bin if it has one and its chain otherwise.
+     *
+     * @param table the table to search through
+     * @param bins the tree bins of the table, possibly null
+     * @param ind the index of the bucket
+     * @param key the key to search for
+     * @return the entry holding the key, or null if it is not in the bucket
+     */
+    private MapEntry<K, V> findInBucket(LinkedList<MapEntry<K, V>>[] table,
+                                        TreeBin<K, V>[] bins, int ind, K key) {
+        if (bins != null && bins[ind] != null) {
+            if (statistics != null) {
+                statistics.recordSearch(bins[ind].height() + 1);
+            }
+            return bins[ind].find(key);
+        }
+        return findInChain(table[ind], key);
+    }
+
+    /**
+     * Helper method to search an external chain for a key.
+     *
+     * @param chain the chain to search through, possibly null
+     * @param key the key to search for
+     * @return the entry holding the key, or null if it is not in the chain
+     */
+    private MapEntry<K, V> findInChain(LinkedList<MapEntry<K, V>> chain,
+                                       K key) {
+        int probe = 0;
+        if (chain != null) {
+            Iterator<MapEntry<K, V>> iter = chain.iterator();
+            while (iter.hasNext()) {
+                MapEntry<K, V> entry = iter.next();
+                probe++;
+                if (entry.getKey().equals(key)) {
+                    if (statistics != null) {
+                        statistics.recordSearch(probe);
                     }
-                    newTable[ind].addFirst(entry);
+                    return entry;
                 }
             }
-            i++;
         }
-        backingTable = newTable;
+        if (statistics != null) {
+            statistics.recordSearch(probe);
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to migrate the next {@code MIGRATION_STEP} buckets of the
+     * old table, dropping the old table once all of them have been moved.
+     */
+    private void advanceMigration() {
+        int end = Math.min(migrateIndex + MIGRATION_STEP, oldTable.length);
+        while (migrateIndex < end) {
+            migrateBucket(migrateIndex);
+            migrateIndex++;
+        }
+        if (migrateIndex == oldTable.length) {
+            oldTable = null;
+            oldTreeBins = null;
+        }
+    }
+
+    /**
+     * Helper method to migrate every remaining bucket of the old table.
+     */
+    private void finishMigration() {
+        if (oldTable != null) {
+            while (migrateIndex < oldTable.length) {
+                migrateBucket(migrateIndex);
+                migrateIndex++;
+            }
+            oldTable = null;
+            oldTreeBins = null;
+        }
+    }
+
+    /**
+     * Helper method to move the entries of one old bucket to the front of
+     * their chains in the new table. Already migrated buckets are null, so
+     * they may be migrated again harmlessly.
+     *
+     * @param i the index of the bucket in the old table
+     */
+    private void migrateBucket(int i) {
+        if (oldTreeBins != null && oldTreeBins[i] != null) {
+            for (MapEntry<K, V> entry : oldTreeBins[i].entries()) {
+                addEntry(indexFor(entry.getKey(), backingTable.length), entry);
+            }
+            oldTreeBins[i] = null;
+        } else if (oldTable[i] != null) {
+            Iterator<MapEntry<K, V>> iter = oldTable[i].iterator();
+            while (iter.hasNext()) {
+                MapEntry<K, V> entry = iter.next();
+                addEntry(indexFor(entry.getKey(), backingTable.length), entry);
+            }
+            oldTable[i] = null;
+        }
+    }
+
+    /**
+     * Helper method to add an entry whose key is not in the map yet to a
+     * bucket of the current table. The entry goes to the front of the chain,
+     * or into the tree bin if the bucket has one, and a chain that becomes
+     * too long is treeified.
+     *
+     * A chain that could not be treeified is only tried again each time its
+     * length reaches a power of two, so a bucket of keys that cannot be
+     * ordered costs amortized O(log n) per add rather than a whole failed
+     * tree bin every time.
+     *
+     * @param ind the index of the bucket
+     * @param entry the entry to add
+     */
+    private void addEntry(int ind, MapEntry<K, V> entry) {
+        modCount++;
+        if (filter != null) {
+            filter.add(entry.getKey().hashCode());
+        }
+        if (treeBins != null && treeBins[ind] != null) {
+            if (treeBins[ind].add(entry)) {
+                return;
+            }
+            // The bin cannot order this key, so fall back to a chain
+            untreeify(ind);
+        }
+        if (backingTable[ind] == null) {
+            backingTable[ind] = new LinkedList<>();
+        }
+        backingTable[ind].addFirst(entry);
+        int length = backingTable[ind].size();
+        if (length == TREEIFY_THRESHOLD + 1 || (length > TREEIFY_THRESHOLD
+                && Integer.bitCount(length) == 1)) {
+            treeify(ind);
+        }
+    }
+
+    /**
+     * Helper method to convert the chain of a bucket into a tree bin. This
+     * is only done if every key in the chain has the same Comparable class,
+     * and no two of them compare as equal.
+     *
+     * @param ind the index of the bucket
+     */
+    private void treeify(int ind) {
+        LinkedList<MapEntry<K, V>> chain = backingTable[ind];
+        Class<?> keyClass = chain.getFirst().getKey().getClass();
+        if (!Comparable.class.isAssignableFrom(keyClass)) {
+            return;
+        }
+        TreeBin<K, V> bin = new TreeBin<>(keyClass);
+        Iterator<MapEntry<K, V>> iter = chain.iterator();
+        while (iter.hasNext()) {
+            if (!bin.add(iter.next())) {
+                return;
+            }
+        }
+        if (treeBins == null) {
+            treeBins = ((TreeBin<K, V>[]) new TreeBin[backingTable.length]);
+        }
+        treeBins[ind] = bin;
+        backingTable[ind] = null;
+        modCount++;
+    }
+
+    /**
+     * Helper method to convert the tree bin of a bucket back into a chain.
+     *
+     * @param ind the index of the bucket
+     */
+    private void untreeify(int ind) {
+        LinkedList<MapEntry<K, V>> chain = new LinkedList<>();
+        for (MapEntry<K, V> entry : treeBins[ind].entries()) {
+            chain.addLast(entry);
+        }
+        backingTable[ind] = chain;
+        treeBins[ind] = null;
+        modCount++;
+    }
+
+    /**
+     * Helper method to compress a key's hash code into an index of a table
+     * of the given length, as decided by the sizing policy.
+     *
+     * @param key the key to compress
+     * @param length the length of the table
+     * @return the index of the key's bucket
+     */
+    private int indexFor(K key, int length) {
+        return sizing.indexFor(key.hashCode(), length);
     }
-    
+
+    /**
+     * {@inheritDoc}
+     *
+     * While an incremental resize is in progress, entries that have not been
+     * migrated yet are not in the returned table. If some buckets are tree
+     * bins, a copy of the table is returned in which those buckets are
+     * listed as chains.
+     */
     @Override
     public LinkedList<MapEntry<K, V>>[] getTable() {
-        // DO NOT EDIT THIS METHOD!
-        return backingTable;
+        if (treeBins == null) {
+            return backingTable;
+        }
+        LinkedList<MapEntry<K, V>>[] table = backingTable.clone();
+        for (int i = 0; i < table.length; i++) {
+            if (treeBins[i] != null) {
+                table[i] = new LinkedList<>(treeBins[i].entries());
+            }
+        }
+        return table;
+    }
+
+    /**
+     * An iterator walking the buckets of the current table, and then those
+     * of the old table if an incremental resize is in progress. Chains are
+     * read by index, so only tree bins and unusually long chains need an
+     * iterator of their own.
+     *
+     * @param <E> the type of element extracted from each entry
+     */
+    private abstract class HashIterator<E> implements Iterator<E> {
+        private final LinkedList<MapEntry<K, V>>[] pendingTable;
+        private final TreeBin<K, V>[] pendingBins;
+        private LinkedList<MapEntry<K, V>>[] table;
+        private TreeBin<K, V>[] bins;
+        private int ind;
+        private LinkedList<MapEntry<K, V>> chain;
+        private int pos;
+        private Iterator<MapEntry<K, V>> bucketIter;
+        private MapEntry<K, V> next;
+
+        /**
+         * Create an iterator positioned before the first entry of the map.
+         */
+        private HashIterator() {
+            table = backingTable;
+            bins = treeBins;
+            pendingTable = oldTable;
+            pendingBins = oldTreeBins;
+            ind = -1;
+            next = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (next == null) {
+                throw new NoSuchElementException("There are no more entries "
+                        + "in this map.");
+            }
+            MapEntry<K, V> entry = next;
+            next = advance();
+            return extract(entry);
+        }
+
+        /**
+         * Extracts the element this iterator returns from an entry.
+         *
+         * @param entry the entry of the map
+         * @return the element for that entry
+         */
+        protected abstract E extract(MapEntry<K, V> entry);
+
+        /**
+         * Helper method to move on to the next entry of the map.
+         *
+         * @return the next entry, or null if every entry has been returned
+         */
+        private MapEntry<K, V> advance() {
+            while (true) {
+                if (bucketIter != null) {
+                    if (bucketIter.hasNext()) {
+                        return bucketIter.next();
+                    }
+                    bucketIter = null;
+                } else if (chain != null) {
+                    if (pos < chain.size()) {
+                        return chain.get(pos++);
+                    }
+                    chain = null;
+                }
+                ind++;
+                if (ind == table.length) {
+                    if (pendingTable == null || table == pendingTable) {
+                        return null;
+                    }
+                    // Continue with the buckets that are not migrated yet
+                    table = pendingTable;
+                    bins = pendingBins;
+                    ind = -1;
+                } else if (bins != null && bins[ind] != null) {
+                    bucketIter = bins[ind].entries().iterator();
+                } else if (table[ind] != null) {
+                    if (table[ind].size() > TREEIFY_THRESHOLD) {
+                        bucketIter = table[ind].iterator();
+                    } else {
+                        chain = table[ind];
+                        pos = 0;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A live, unmodifiable view of the keys of the map.
+     */
+    private final class KeySetView extends AbstractSet<K> {
+        @Override
+        public Iterator<K> iterator() {
+            return new HashIterator<K>() {
+                @Override
+                protected K extract(MapEntry<K, V> entry) {
+                    return entry.getKey();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o != null && findEntry((K) o) != null;
+        }
+
+        @Override
+        public Spliterator<K> spliterator() {
+            return new HashSpliterator<>(MapEntry::getKey,
+                    Spliterator.DISTINCT | Spliterator.NONNULL);
+        }
+    }
+
+    /**
+     * A live, unmodifiable view of the values of the map.
+     */
+    private final class ValuesView extends AbstractList<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new HashIterator<V>() {
+                @Override
+                protected V extract(MapEntry<K, V> entry) {
+                    return entry.getValue();
+                }
+            };
+        }
+
+        @Override
+        public V get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index is not within the "
+                        + "size of the map: " + 0 + " to " + (size - 1));
+            }
+            Iterator<V> iter = iterator();
+            for (int i = 0; i < index; i++) {
+                iter.next();
+            }
+            return iter.next();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            return new HashSpliterator<>(MapEntry::getValue,
+                    Spliterator.NONNULL);
+        }
+    }
+
+    /**
+     * A live, unmodifiable view of the entries of the map.
+     */
+    private final class EntrySetView extends AbstractSet<MapEntry<K, V>> {
+        @Override
+        public Iterator<MapEntry<K, V>> iterator() {
+            return new HashIterator<MapEntry<K, V>>() {
+                @Override
+                protected MapEntry<K, V> extract(MapEntry<K, V> entry) {
+                    return entry;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof MapEntry)) {
+                return false;
+            }
+            MapEntry<K, V> that = (MapEntry<K, V>) o;
+            if (that.getKey() == null) {
+                return false;
+            }
+            MapEntry<K, V> entry = findEntry(that.getKey());
+            return entry != null && entry.getValue().equals(that.getValue());
+        }
+
+        @Override
+        public Spliterator<MapEntry<K, V>> spliterator() {
+            return new HashSpliterator<>(entry -> entry,
+                    Spliterator.DISTINCT | Spliterator.NONNULL);
+        }
+    }
+
+    /**
+     * A Spliterator over a range of buckets, used to stream the views of
+     * the map in parallel. The buckets of the current table and those of the
+     * old table, if an incremental resize is in progress, are numbered one
+     * after the other, and splitting hands off the first half of the
+     * remaining bucket range.
+     *
+     * @param <E> the type of element extracted from each entry
+     */
+    private final class HashSpliterator<E> implements Spliterator<E> {
+        private final Function<MapEntry<K, V>, E> extractor;
+        private final int characteristics;
+        private final LinkedList<MapEntry<K, V>>[] table;
+        private final TreeBin<K, V>[] bins;
+        private final LinkedList<MapEntry<K, V>>[] pendingTable;
+        private final TreeBin<K, V>[] pendingBins;
+        private int ind;
+        private int fence;
+        private long estimate;
+        private boolean exact;
+        private LinkedList<MapEntry<K, V>> chain;
+        private int pos;
+        private Iterator<MapEntry<K, V>> bucketIter;
+
+        /**
+         * Create a spliterator over every bucket of the map.
+         *
+         * @param extractor the function extracting an element from an entry
+         * @param characteristics the characteristics of the elements
+         */
+        private HashSpliterator(Function<MapEntry<K, V>, E> extractor,
+                                int characteristics) {
+            this.extractor = extractor;
+            this.characteristics = characteristics;
+            table = backingTable;
+            bins = treeBins;
+            pendingTable = oldTable;
+            pendingBins = oldTreeBins;
+            ind = 0;
+            fence = table.length
+                    + (pendingTable == null ? 0 : pendingTable.length);
+            estimate = size;
+            exact = true;
+        }
+
+        /**
+         * Create a spliterator over part of the buckets of another one.
+         *
+         * @param parent the spliterator being split
+         * @param ind the first bucket of the range
+         * @param fence one past the last bucket of the range
+         */
+        private HashSpliterator(HashSpliterator<E> parent, int ind,
+                                int fence) {
+            this.extractor = parent.extractor;
+            this.characteristics = parent.characteristics;
+            table = parent.table;
+            bins = parent.bins;
+            pendingTable = parent.pendingTable;
+            pendingBins = parent.pendingBins;
+            this.ind = ind;
+            this.fence = fence;
+            estimate = parent.estimate;
+            exact = false;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null) {
+                throw new IllegalArgumentException("Input action is null, "
+                        + "please use a valid input.");
+            }
+            while (true) {
+                if (bucketIter != null) {
+                    if (bucketIter.hasNext()) {
+                        action.accept(extractor.apply(bucketIter.next()));
+                        return true;
+                    }
+                    bucketIter = null;
+                } else if (chain != null) {
+                    if (pos < chain.size()) {
+                        action.accept(extractor.apply(chain.get(pos++)));
+                        return true;
+                    }
+                    chain = null;
+                }
+                if (ind >= fence) {
+                    return false;
+                }
+                openBucket(ind++);
+            }
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int mid = (ind + fence) >>> 1;
+            if (mid <= ind) {
+                return null;
+            }
+            estimate = estimate >>> 1;
+            exact = false;
+            HashSpliterator<E> prefix = new HashSpliterator<>(this, ind, mid);
+            ind = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return exact ? characteristics | Spliterator.SIZED
+                    : characteristics;
+        }
+
+        /**
+         * Helper method to start walking a bucket, given its position in the
+         * numbering of both tables.
+         *
+         * @param i the number of the bucket
+         */
+        private void openBucket(int i) {
+            LinkedList<MapEntry<K, V>>[] t = table;
+            TreeBin<K, V>[] b = bins;
+            if (i >= table.length) {
+                t = pendingTable;
+                b = pendingBins;
+                i -= table.length;
+            }
+            if (b != null && b[i] != null) {
+                bucketIter = b[i].entries().iterator();
+            } else if (t[i] != null) {
+                if (t[i].size() > TREEIFY_THRESHOLD) {
+                    bucketIter = t[i].iterator();
+                } else {
+                    chain = t[i];
+                    pos = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * A bucket whose entries are kept in an AVL tree ordered by key instead
+     * of in a chain. Every key in the bin has the same Comparable class.
+     */
+    private static final class TreeBin<K, V> {
+        private final AVL<TreeBinEntry<K, V>> tree;
+        private final Class<?> keyClass;
+
+        /**
+         * Create an empty tree bin.
+         *
+         * @param keyClass the class every key in the bin must have
+         */
+        private TreeBin(Class<?> keyClass) {
+            this.tree = new AVL<>();
+            this.keyClass = keyClass;
+        }
+
+        /**
+         * Searches the bin for a key.
+         *
+         * @param key the key to search for
+         * @return the entry holding the key, or null if it is not in the bin
+         */
+        private MapEntry<K, V> find(K key) {
+            if (key.getClass() != keyClass) {
+                return null;
+            }
+            TreeBinEntry<K, V> node = tree.find(new TreeBinEntry<>(key, null));
+            if (node == null) {
+                return null;
+            }
+            return node.entry.getKey().equals(key) ? node.entry : null;
+        }
+
+        /**
+         * Adds an entry whose key is not in the bin yet.
+         *
+         * @param entry the entry to add
+         * @return false if the entry could not be added because its key has
+         * another class or compares as equal to a different key in the bin
+         */
+        private boolean add(MapEntry<K, V> entry) {
+            K key = entry.getKey();
+            if (key.getClass() != keyClass) {
+                return false;
+            }
+            TreeBinEntry<K, V> node = new TreeBinEntry<>(key, entry);
+            int before = tree.size();
+            tree.add(node);
+            return tree.size() != before;
+        }
+
+        /**
+         * Removes the entry holding a key from the bin.
+         *
+         * @param key the key to remove
+         * @return the removed entry, or null if the key is not in the bin
+         */
+        private MapEntry<K, V> remove(K key) {
+            if (key.getClass() != keyClass) {
+                return null;
+            }
+            TreeBinEntry<K, V> node = tree.find(new TreeBinEntry<>(key, null));
+            if (node == null || !node.entry.getKey().equals(key)) {
+                // Absent, or only compares as equal to this key
+                return null;
+            }
+            tree.remove(node);
+            return node.entry;
+        }
+
+        /**
+         * Returns the number of entries in the bin.
+         *
+         * @return the number of entries in the bin
+         */
+        private int size() {
+            return tree.size();
+        }
+
+        /**
+         * Returns the height of the bin's tree.
+         *
+         * @return the height of the tree, or -1 if the bin is empty
+         */
+        private int height() {
+            return tree.height();
+        }
+
+        /**
+         * Lists the entries of the bin in key order, walking the tree once
+         * into a single list.
+         *
+         * @return a list of every entry in the bin
+         */
+        private List<MapEntry<K, V>> entries() {
+            List<MapEntry<K, V>> list = new ArrayList<>(tree.size());
+            tree.spliterator().forEachRemaining(node -> list.add(node.entry));
+            return list;
+        }
+    }
+
+    /**
+     * An entry of a tree bin, ordered by the natural ordering of its key.
+     * The map entry itself is shared with the rest of the map, so updating
+     * its value needs no change to the tree.
+     */
+    private static final class TreeBinEntry<K, V>
+            implements Comparable<TreeBinEntry<K, V>> {
+        private final K key;
+        private final MapEntry<K, V> entry;
+
+        /**
+         * Create a tree bin entry.
+         *
+         * @param key the key the entry is ordered by
+         * @param entry the map entry, or null for a search probe
+         */
+        private TreeBinEntry(K key, MapEntry<K, V> entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+
+        @Override
+        public int compareTo(TreeBinEntry<K, V> other) {
+            return ((Comparable<Object>) key).compareTo(other.key);
+        }
     }
 }
@@ -1,6 +1,8 @@
 import java.util.Set;
 import java.util.List;
 import java.util.LinkedList;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 /**
  * Interface for a HashMap.
  * DO NOT EDIT THIS FILE!
@@ -63,6 +65,125 @@ public interface HashMapInterface<K, V> {
      */
     V get(K key);
 
+    /**
+     * Gets the value associated with the given key, or the given default
+     * value if the key is not in the map. Unlike {@code get}, a missing key
+     * does not cost an exception.
+     *
+     * @param key the key to search for
+     * @param defaultValue the value to return if the key is not in the map
+     * @throws IllegalArgumentException if key is null
+     * @return the value associated with the given key, or defaultValue
+     */
+    default V getOrDefault(K key, V defaultValue) {
+        return containsKey(key) ? get(key) : defaultValue;
+    }
+
+    /**
+     * Adds the given key-value pair to the HashMap only if the key is not
+     * already in it.
+     *
+     * @param key key to add into the HashMap
+     * @param value value to add into the HashMap
+     * @throws IllegalArgumentException if key or value is null
+     * @return null if the key was not already in the map. If it was in the
+     * map, return the value associated with it, which is left unchanged
+     */
+    default V putIfAbsent(K key, V value) {
+        if (value == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or value is null"
+                    + ", please use a valid input.");
+        }
+        return containsKey(key) ? get(key) : put(key, value);
+    }
+
+    /**
+     * If the key is not in the map, computes a value for it with the given
+     * function and adds it, unless the function returns null.
+     *
+     * The function must not modify this map.
+     *
+     * @param key the key to search for
+     * @param function the function computing a value for a missing key
+     * @throws IllegalArgumentException if key or function is null
+     * @return the value now associated with the key, or null if there is none
+     */
+    default V computeIfAbsent(K key,
+                              Function<? super K, ? extends V> function) {
+        if (function == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or function is "
+                    + "null, please use a valid input.");
+        }
+        if (containsKey(key)) {
+            return get(key);
+        }
+        V value = function.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Computes a new value for the key from the key and its current value,
+     * which is null if the key is not in the map. If the new value is null,
+     * the key is removed from the map (if it was in it).
+     *
+     * The function must not modify this map.
+     *
+     * @param key the key to remap
+     * @param function the function computing the new value
+     * @throws IllegalArgumentException if key or function is null
+     * @return the new value associated with the key, or null if there is none
+     */
+    default V compute(K key,
+                      BiFunction<? super K, ? super V, ? extends V> function) {
+        if (function == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or function is "
+                    + "null, please use a valid input.");
+        }
+        boolean present = containsKey(key);
+        V value = function.apply(key, present ? get(key) : null);
+        if (value != null) {
+            put(key, value);
+        } else if (present) {
+            remove(key);
+        }
+        return value;
+    }
+
+    /**
+     * Adds the given key-value pair if the key is not in the map. Otherwise,
+     * combines the current value with the given one using the function, and
+     * removes the key if the function returns null.
+     *
+     * The function must not modify this map.
+     *
+     * @param key the key to merge into
+     * @param value the value to add or combine with the current one
+     * @param function the function combining the current and given values
+     * @throws IllegalArgumentException if key, value or function is null
+     * @return the new value associated with the key, or null if there is none
+     */
+    default V merge(K key, V value,
+                    BiFunction<? super V, ? super V, ? extends V> function) {
+        if (value == null || key == null || function == null) {
+            throw new IllegalArgumentException("Input key, value and/or "
+                    + "function is null, please use a valid input.");
+        }
+        if (!containsKey(key)) {
+            put(key, value);
+            return value;
+        }
+        V merged = function.apply(get(key), value);
+        if (merged != null) {
+            put(key, merged);
+        } else {
+            remove(key);
+        }
+        return merged;
+    }
+
     /**
      * Returns whether or not the key is in the map.
      *
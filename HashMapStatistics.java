@@ -0,0 +1,182 @@
+/**
+ * Counters describing how a HashMap has been searching and regrowing its
+ * table since its statistics were enabled.
+ *
+ * A bucket search is one walk through a bucket looking for a key, and its
+ * probe length is the number of keys it compared against: the position of
+ * the key in the chain if it was found, the length of the chain if not, or
+ * the height of the tree if the bucket is a tree bin. Lookups answered by
+ * the membership filter search no bucket at all. Long probes on a lightly
+ * loaded table point at keys whose hash codes collide.
+ *
+ * The counters are updated by the map as it runs and are not synchronized,
+ * so they should only be read by the thread using the map.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class HashMapStatistics {
+
+    private long searches;
+    private long probes;
+    private int maxProbe;
+    private int resizes;
+    private long resizeNanos;
+
+    /**
+     * Create a set of statistics with every counter at 0.
+     */
+    HashMapStatistics() {
+    }
+
+    /**
+     * Records one bucket search.
+     *
+     * @param probe the number of keys the search compared against
+     */
+    void recordSearch(int probe) {
+        searches++;
+        probes += probe;
+        if (probe > maxProbe) {
+            maxProbe = probe;
+        }
+    }
+
+    /**
+     * Records one regrowth of the table.
+     *
+     * @param nanos the time the resize took in nanoseconds
+     */
+    void recordResize(long nanos) {
+        resizes++;
+        resizeNanos += nanos;
+    }
+
+    /**
+     * Returns the number of bucket searches made.
+     *
+     * @return the number of bucket searches
+     */
+    public long getSearchCount() {
+        return searches;
+    }
+
+    /**
+     * Returns the mean number of keys compared against per bucket search.
+     *
+     * @return the average probe length, or 0 if no bucket was searched
+     */
+    public double getAverageProbeLength() {
+        return searches == 0 ? 0.0 : probes / (double) searches;
+    }
+
+    /**
+     * Returns the most keys compared against by a single bucket search.
+     *
+     * @return the maximum probe length
+     */
+    public int getMaxProbeLength() {
+        return maxProbe;
+    }
+
+    /**
+     * Returns the number of times the table was resized.
+     *
+     * @return the number of resizes
+     */
+    public int getResizeCount() {
+        return resizes;
+    }
+
+    /**
+     * Returns the total time spent in {@code resizeBackingTable}. In
+     * incremental resize mode this leaves out the buckets migrated later by
+     * other operations.
+     *
+     * @return the time spent resizing in nanoseconds
+     */
+    public long getResizeNanos() {
+        return resizeNanos;
+    }
+
+    /**
+     * How the hash codes of the keys of one class spread over a table.
+     *
+     * If hash codes were random, n keys would be expected to occupy
+     * {@code m * (1 - (1 - 1/m)^n)} of the m buckets. A class whose keys
+     * occupy far fewer buckets than that, or share far fewer distinct hash
+     * codes than there are keys, has a poor {@code hashCode}.
+     */
+    public static final class KeyClassReport {
+        private final Class<?> keyClass;
+        private final int keys;
+        private final int distinctHashCodes;
+        private final int bucketsUsed;
+        private final double expectedBucketsUsed;
+
+        /**
+         * Create a report for one class of key.
+         *
+         * @param keyClass the class of the keys
+         * @param keys the number of keys of the class
+         * @param distinctHashCodes the number of distinct hash codes of them
+         * @param bucketsUsed the number of buckets holding at least one
+         * @param tableLength the length of the table
+         */
+        KeyClassReport(Class<?> keyClass, int keys, int distinctHashCodes,
+                       int bucketsUsed, int tableLength) {
+            this.keyClass = keyClass;
+            this.keys = keys;
+            this.distinctHashCodes = distinctHashCodes;
+            this.bucketsUsed = bucketsUsed;
+            this.expectedBucketsUsed = tableLength
+                    * -Math.expm1(keys * Math.log1p(-1.0 / tableLength));
+        }
+
+        /**
+         * Returns the class of the keys.
+         *
+         * @return the class of the keys
+         */
+        public Class<?> getKeyClass() {
+            return keyClass;
+        }
+
+        /**
+         * Returns the number of keys of the class in the map.
+         *
+         * @return the number of keys
+         */
+        public int getKeyCount() {
+            return keys;
+        }
+
+        /**
+         * Returns the number of distinct hash codes among the keys.
+         *
+         * @return the number of distinct hash codes
+         */
+        public int getDistinctHashCodes() {
+            return distinctHashCodes;
+        }
+
+        /**
+         * Returns the number of buckets holding at least one of the keys.
+         *
+         * @return the number of buckets used
+         */
+        public int getBucketsUsed() {
+            return bucketsUsed;
+        }
+
+        /**
+         * Returns the number of buckets the keys would be expected to occupy
+         * if their hash codes were random.
+         *
+         * @return the expected number of buckets used
+         */
+        public double getExpectedBucketsUsed() {
+            return expectedBucketsUsed;
+        }
+    }
+}
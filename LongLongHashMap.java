@@ -0,0 +1,305 @@
+import java.util.NoSuchElementException;
+
+/**
+ * A HashMap from primitive {@code long} keys to primitive {@code long} values.
+ *
+ * Follows the contract of HashMapInterface, but neither keys nor values are
+ * ever boxed: they are stored side by side in flat {@code long[]} arrays, and
+ * collisions are resolved with linear probing. Each slot has a state byte
+ * telling whether it is empty, holds an entry or holds the tombstone of a
+ * removed entry, since every long (including 0) is a valid key.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class LongLongHashMap {
+
+    private static final byte EMPTY = 0;
+    private static final byte FULL = 1;
+    private static final byte DELETED = 2;
+
+    /**
+     * The value returned by {@code put} when the key was not already mapped,
+     * since a primitive value cannot be null.
+     */
+    public static final long NO_ENTRY_VALUE = 0L;
+
+    private long[] keys;
+    private long[] values;
+    private byte[] states;
+    private int size;
+    private int tombstones;
+
+    /**
+     * Create a hash map with no entries. The backing arrays have an initial
+     * capacity of {@code HashMapInterface.INITIAL_CAPACITY}.
+     */
+    public LongLongHashMap() {
+        this(HashMapInterface.INITIAL_CAPACITY);
+    }
+
+    /**
+     * Create a hash map with no entries. The backing arrays have an initial
+     * capacity of {@code initialCapacity}.
+     *
+     * @param initialCapacity initial capacity of the backing arrays
+     * @throws IllegalArgumentException if initialCapacity is non-positive
+     */
+    public LongLongHashMap(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("The initial capacity must be "
+                    + "positive, please use a valid input.");
+        }
+        keys = new long[initialCapacity];
+        values = new long[initialCapacity];
+        states = new byte[initialCapacity];
+        size = 0;
+        tombstones = 0;
+    }
+
+    /**
+     * Adds the given key-value pair to the map, replacing the value of an
+     * existing entry with the same key. The table is regrown to
+     * 2 * old length + 1 before adding if the load factor would exceed
+     * {@code HashMapInterface.MAX_LOAD_FACTOR}.
+     *
+     * Use {@code containsKey} beforehand if a stored value may be equal to
+     * {@code NO_ENTRY_VALUE} and the two cases must be told apart.
+     *
+     * @param key key to add into the map
+     * @param value value to add into the map
+     * @return {@code NO_ENTRY_VALUE} if the key was not already in the map.
+     * If it was in the map, return the old value associated with it
+     */
+    public long put(long key, long value) {
+        if (((size + tombstones + 1) / ((double) keys.length))
+                > HashMapInterface.MAX_LOAD_FACTOR) {
+            resizeBackingTable((2 * keys.length) + 1);
+        }
+        int ind = indexFor(key, keys.length);
+        int firstTombstone = -1;
+        for (int probes = 0; probes < keys.length; probes++) {
+            if (states[ind] == EMPTY) {
+                // Case 1: The key is absent, reuse the first tombstone passed
+                if (firstTombstone != -1) {
+                    ind = firstTombstone;
+                    tombstones--;
+                }
+                insertAt(ind, key, value);
+                return NO_ENTRY_VALUE;
+            } else if (states[ind] == DELETED) {
+                if (firstTombstone == -1) {
+                    firstTombstone = ind;
+                }
+            } else if (keys[ind] == key) {
+                // Case 2: The key is already mapped, replace its value
+                long rep = values[ind];
+                values[ind] = value;
+                return rep;
+            }
+            ind = nextIndex(ind);
+        }
+        // Case 3: Every slot was probed, so the key can only go in a tombstone
+        tombstones--;
+        insertAt(firstTombstone, key, value);
+        return NO_ENTRY_VALUE;
+    }
+
+    /**
+     * Removes the entry with a matching key from the map.
+     *
+     * @param key the key to remove
+     * @throws java.util.NoSuchElementException if the key does not exist
+     * @return the value previously associated with the key
+     */
+    public long remove(long key) {
+        int ind = findSlot(key);
+        if (ind == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        long rem = values[ind];
+        states[ind] = DELETED;
+        size--;
+        tombstones++;
+        return rem;
+    }
+
+    /**
+     * Gets the value associated with the given key.
+     *
+     * @param key the key to search for
+     * @throws java.util.NoSuchElementException if the key is not in the map
+     * @return the value associated with the given key
+     */
+    public long get(long key) {
+        int ind = findSlot(key);
+        if (ind == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        return values[ind];
+    }
+
+    /**
+     * Returns whether or not the key is in the map.
+     *
+     * @param key the key to search for
+     * @return whether or not the key is in the map
+     */
+    public boolean containsKey(long key) {
+        return findSlot(key) != -1;
+    }
+
+    /**
+     * Clears the table and resets it to the default length.
+     */
+    public void clear() {
+        keys = new long[HashMapInterface.INITIAL_CAPACITY];
+        values = new long[HashMapInterface.INITIAL_CAPACITY];
+        states = new byte[HashMapInterface.INITIAL_CAPACITY];
+        size = 0;
+        tombstones = 0;
+    }
+
+    /**
+     * Returns the number of elements in the map.
+     *
+     * @return number of elements in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the keys contained in this map, beginning with the first index
+     * of the backing array. The keys are copied into a primitive array so
+     * that none of them are boxed.
+     *
+     * @return array of the keys in this map
+     */
+    public long[] keys() {
+        long[] out = new long[size];
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (states[i] == FULL) {
+                out[j++] = keys[i];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the values contained in this map, beginning with the first
+     * index of the backing array. The values are copied into a primitive
+     * array so that none of them are boxed.
+     *
+     * @return array of the values in this map
+     */
+    public long[] values() {
+        long[] out = new long[size];
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (states[i] == FULL) {
+                out[j++] = values[i];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Resize the backing table to {@code length}. Tombstones are not carried
+     * over to the new table.
+     *
+     * @param length new length of the backing table
+     * @throws IllegalArgumentException if length is non-positive or smaller
+     * than the number of entries in the map
+     */
+    public void resizeBackingTable(int length) {
+        if (length <= 0 || length < size) {
+            throw new IllegalArgumentException("The input length is not "
+                    + "positive or cannot hold every entry of the map, and "
+                    + "therefore is invalid. Please use an input of at least "
+                    + "max(1, size).");
+        }
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        byte[] oldStates = states;
+        keys = new long[length];
+        values = new long[length];
+        states = new byte[length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStates[i] == FULL) {
+                int ind = indexFor(oldKeys[i], length);
+                while (states[ind] != EMPTY) {
+                    ind = nextIndex(ind);
+                }
+                keys[ind] = oldKeys[i];
+                values[ind] = oldValues[i];
+                states[ind] = FULL;
+            }
+        }
+        tombstones = 0;
+    }
+
+    /**
+     * Walks the probe sequence of the key until it finds the key or an empty
+     * slot.
+     *
+     * @param key the key to search for
+     * @return the slot holding the key, or -1 if the key is not in the map
+     */
+    private int findSlot(long key) {
+        int ind = indexFor(key, keys.length);
+        for (int probes = 0; probes < keys.length; probes++) {
+            byte state = states[ind];
+            if (state == EMPTY) {
+                return -1;
+            } else if (state == FULL && keys[ind] == key) {
+                return ind;
+            }
+            ind = nextIndex(ind);
+        }
+        return -1;
+    }
+
+    /**
+     * Stores a new entry in the given free slot.
+     *
+     * @param ind the slot to store the entry in
+     * @param key the key of the entry
+     * @param value the value of the entry
+     */
+    private void insertAt(int ind, long key, long value) {
+        keys[ind] = key;
+        values[ind] = value;
+        states[ind] = FULL;
+        size++;
+    }
+
+    /**
+     * Returns the next slot of a linear probe, wrapping around to the front
+     * of the table.
+     *
+     * @param ind the current slot
+     * @return the slot after it
+     */
+    private int nextIndex(int ind) {
+        ind++;
+        return ind == keys.length ? 0 : ind;
+    }
+
+    /**
+     * Compresses a key into an index of a table of the given length. The key
+     * is mixed and folded to 32 bits first so that runs of consecutive keys
+     * do not form a single long probe cluster.
+     *
+     * @param key the key to compress
+     * @param length the length of the table
+     * @return the home slot of the key
+     */
+    private static int indexFor(long key, int length) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return Math.abs(((int) (h ^ (h >>> 32))) % length);
+    }
+}
@@ -0,0 +1,719 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A persistent implementation of HashMap whose table lives in a
+ * memory-mapped file, so that reopening the map after a restart is O(1) and
+ * reads are served straight from the OS page cache.
+ *
+ * The file starts with a small header (magic number, format version, codec
+ * widths, table length, counters and a clean-shutdown marker) followed by
+ * open-addressed slots, laid out as a state byte, the cached hash code of the
+ * key, the key bytes and two copies of the value. The hash code is computed
+ * from the key bytes rather than by {@code hashCode}, which many classes do
+ * not keep the same from one run to the next, so a reopened file hashes its
+ * keys exactly as the process that wrote it did. Every change is committed
+ * by a single write of the state byte, made after everything it publishes:
+ * <ul>
+ * <li>an insert writes the key and value first, then marks the slot full,
+ * <li>an update writes the copy of the value that is not in use, then flips
+ * the state byte over to it,
+ * <li>a remove turns the state byte into a tombstone.
+ * </ul>
+ * A process killed at any point (even with {@code kill -9}) therefore leaves
+ * every slot either before or after its last change. The counters in the
+ * header may lag behind, so the clean-shutdown marker is cleared while the
+ * map is open, and a map that was not closed has its counters rebuilt by a
+ * scan when it is reopened.
+ *
+ * Resizing writes a complete new table to a temporary file, which then
+ * atomically replaces the old file before it is remapped. A crash during a
+ * resize leaves the old file untouched, and the temporary file is deleted
+ * on the next open.
+ *
+ * Surviving power loss as well as process crashes needs the mapped pages to
+ * be written to disk, which {@code flush} and {@code close} do.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class MappedHashMap<K, V> implements HashMapInterface<K, V>, Closeable {
+
+    /**
+     * The largest number of bytes of slots mapped by a single buffer.
+     */
+    public static final int CHUNK_BYTES = 1 << 30;
+
+    private static final int MAGIC = 0x484D4150;
+    // Version 1 files cached hashCode, which a later run may not reproduce
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int KEY_WIDTH_OFFSET = 8;
+    private static final int VALUE_WIDTH_OFFSET = 12;
+    private static final int LENGTH_OFFSET = 16;
+    private static final int SIZE_OFFSET = 20;
+    private static final int TOMBSTONES_OFFSET = 24;
+    private static final int CLEAN_OFFSET = 28;
+
+    private static final byte EMPTY = 0;
+    private static final byte FULL_A = 1;
+    private static final byte FULL_B = 2;
+    private static final byte DELETED = 3;
+    private static final int HASH_OFFSET = 1;
+    private static final int KEY_OFFSET = HASH_OFFSET + Integer.BYTES;
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    private final Path path;
+    private final Path resizePath;
+    private final FixedWidthCodec<K> keyCodec;
+    private final FixedWidthCodec<V> valueCodec;
+    private final int keyWidth;
+    private final int valueWidth;
+    private final int slotWidth;
+    private final int chunkShift;
+    private final ByteBuffer keyScratch;
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private MappedByteBuffer[] chunks;
+    private int length;
+    private int size;
+    private int tombstones;
+
+    /**
+     * Opens the map stored in the given file, creating an empty map with an
+     * initial capacity of {@code INITIAL_CAPACITY} if the file does not
+     * exist yet.
+     *
+     * @param path the file holding the map
+     * @param keyCodec the codec writing keys into slots
+     * @param valueCodec the codec writing values into slots
+     * @throws IllegalArgumentException if any argument is null
+     * @throws IOException if the file cannot be read or written, is not a
+     * map file, or was written with codecs of different widths
+     */
+    public MappedHashMap(Path path, FixedWidthCodec<K> keyCodec,
+                         FixedWidthCodec<V> valueCodec) throws IOException {
+        if (path == null || keyCodec == null || valueCodec == null) {
+            throw new IllegalArgumentException("Input path and/or codec is "
+                    + "null, please use a valid input.");
+        }
+        this.path = path;
+        this.resizePath = path.resolveSibling(path.getFileName() + ".resize");
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        keyWidth = keyCodec.width();
+        valueWidth = valueCodec.width();
+        slotWidth = KEY_OFFSET + keyWidth + 2 * valueWidth;
+        int slotsPerChunk = Integer.highestOneBit(CHUNK_BYTES / slotWidth);
+        chunkShift = Integer.numberOfTrailingZeros(slotsPerChunk);
+        keyScratch = ByteBuffer.allocate(keyWidth);
+        // A leftover resize file belongs to a resize that never committed
+        Files.deleteIfExists(resizePath);
+        if (!Files.exists(path)) {
+            writeTable(INITIAL_CAPACITY);
+        }
+        open();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (value == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or value is null"
+                    + ", please use a valid input.");
+        }
+        ensureOpen();
+        // Tombstones occupy slots too, so they count towards the load factor
+        if (((size + tombstones + 1) / ((double) length)) > MAX_LOAD_FACTOR) {
+            resizeBackingTable((2 * length) + 1);
+        }
+        keyCodec.write(keyScratch, 0, key);
+        int hash = hashKey();
+        int ind = indexFor(hash, length);
+        int firstTombstone = -1;
+        for (int probes = 0; probes < length; probes++) {
+            ByteBuffer chunk = chunkOf(ind);
+            int offset = offsetOf(ind);
+            byte state = chunk.get(offset);
+            if (state == EMPTY) {
+                // Case 1: The key is absent, reuse the first tombstone passed
+                if (firstTombstone != -1) {
+                    ind = firstTombstone;
+                    tombstones--;
+                }
+                insertAt(ind, hash, value);
+                return null;
+            } else if (state == DELETED) {
+                if (firstTombstone == -1) {
+                    firstTombstone = ind;
+                }
+            } else if (keyMatches(chunk, offset, hash)) {
+                // Case 2: Write the spare copy of the value, then switch over
+                V rep = valueCodec.read(chunk, valueOffset(offset, state));
+                byte spare = state == FULL_A ? FULL_B : FULL_A;
+                valueCodec.write(chunk, valueOffset(offset, spare), value);
+                commit(chunk, offset, spare);
+                return rep;
+            }
+            ind = nextIndex(ind);
+        }
+        // Case 3: Every slot was probed, so the key can only go in a tombstone
+        tombstones--;
+        insertAt(firstTombstone, hash, value);
+        return null;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        ensureOpen();
+        int ind = findSlot(key);
+        if (ind == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        ByteBuffer chunk = chunkOf(ind);
+        int offset = offsetOf(ind);
+        V rem = valueCodec.read(chunk, valueOffset(offset, chunk.get(offset)));
+        commit(chunk, offset, DELETED);
+        size--;
+        tombstones++;
+        writeCounters();
+        return rem;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        ensureOpen();
+        int ind = findSlot(key);
+        if (ind == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        ByteBuffer chunk = chunkOf(ind);
+        int offset = offsetOf(ind);
+        return valueCodec.read(chunk, valueOffset(offset, chunk.get(offset)));
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        ensureOpen();
+        return findSlot(key) != -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The file is replaced by an empty table just like during a resize.
+     *
+     * @throws UncheckedIOException if the new table cannot be written
+     */
+    @Override
+    public void clear() {
+        ensureOpen();
+        try {
+            closeChannel();
+            Files.deleteIfExists(resizePath);
+            writeTable(INITIAL_CAPACITY);
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        ensureOpen();
+        Set<K> set = new HashSet<>();
+        for (int i = 0; i < length; i++) {
+            ByteBuffer chunk = chunkOf(i);
+            int offset = offsetOf(i);
+            if (isFull(chunk.get(offset))) {
+                set.add(keyCodec.read(chunk, offset + KEY_OFFSET));
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public List<V> values() {
+        ensureOpen();
+        LinkedList<V> list = new LinkedList<>();
+        for (int i = 0; i < length; i++) {
+            ByteBuffer chunk = chunkOf(i);
+            int offset = offsetOf(i);
+            byte state = chunk.get(offset);
+            if (isFull(state)) {
+                list.addLast(valueCodec.read(chunk,
+                        valueOffset(offset, state)));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The new table is written to a temporary file next to the map's file,
+     * which then atomically replaces it and is remapped. Since every entry
+     * needs a slot of its own, the new length may not be smaller than the
+     * number of entries in the map.
+     *
+     * @throws IllegalArgumentException if length is non-positive or smaller
+     * than the number of entries in the map
+     * @throws UncheckedIOException if the new table cannot be written
+     */
+    @Override
+    public void resizeBackingTable(int length) {
+        if (length <= 0 || length < size) {
+            throw new IllegalArgumentException("The input length is not "
+                    + "positive or cannot hold every entry of the map, and "
+                    + "therefore is invalid. Please use an input of at least "
+                    + "max(1, size).");
+        }
+        ensureOpen();
+        try {
+            writeTable(length);
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Open addressing has no external chains, so every occupied slot is
+     * reported as a chain holding exactly one decoded entry, and empty slots
+     * or tombstones are reported as null.
+     */
+    @Override
+    public LinkedList<MapEntry<K, V>>[] getTable() {
+        ensureOpen();
+        LinkedList<MapEntry<K, V>>[] table = ((LinkedList<MapEntry<K, V>>[])
+                new LinkedList[length]);
+        for (int i = 0; i < length; i++) {
+            ByteBuffer chunk = chunkOf(i);
+            int offset = offsetOf(i);
+            byte state = chunk.get(offset);
+            if (isFull(state)) {
+                table[i] = new LinkedList<>();
+                table[i].addFirst(new MapEntry<>(
+                        keyCodec.read(chunk, offset + KEY_OFFSET),
+                        valueCodec.read(chunk, valueOffset(offset, state))));
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Writes every change made so far through to the disk, so that it also
+     * survives a power loss.
+     */
+    public void flush() {
+        ensureOpen();
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+        header.force();
+    }
+
+    /**
+     * Flushes the map and marks the file as cleanly closed, so that the next
+     * open can trust its counters. The map cannot be used afterwards.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            flush();
+            header.put(CLEAN_OFFSET, (byte) 1);
+            header.force();
+            closeChannel();
+        }
+    }
+
+    /**
+     * Maps the map's file and checks that it matches the codecs. If the file
+     * was not closed cleanly, the counters are rebuilt from the slots. The
+     * file is then marked as open until it is closed again.
+     *
+     * @throws IOException if the file cannot be mapped or is not a valid map
+     * file for the codecs
+     */
+    private void open() throws IOException {
+        closeChannel();
+        channel = FileChannel.open(path, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_BYTES) {
+            closeChannel();
+            throw new IOException("The file " + path + " is too short to be "
+                    + "a map file.");
+        }
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (header.getInt(MAGIC_OFFSET) != MAGIC
+                || header.getInt(VERSION_OFFSET) != VERSION) {
+            closeChannel();
+            throw new IOException("The file " + path + " is not a map file "
+                    + "of version " + VERSION + ".");
+        } else if (header.getInt(KEY_WIDTH_OFFSET) != keyWidth
+                || header.getInt(VALUE_WIDTH_OFFSET) != valueWidth) {
+            closeChannel();
+            throw new IOException("The file " + path + " was written with "
+                    + "codecs of different widths.");
+        }
+        length = header.getInt(LENGTH_OFFSET);
+        chunks = mapChunks(channel, length);
+        if (header.get(CLEAN_OFFSET) == 1) {
+            size = header.getInt(SIZE_OFFSET);
+            tombstones = header.getInt(TOMBSTONES_OFFSET);
+        } else {
+            recount();
+        }
+        header.put(CLEAN_OFFSET, (byte) 0);
+        header.force();
+    }
+
+    /**
+     * Writes a complete table of the given length holding every entry of the
+     * map (if it is open) to the resize file, and then moves it over the
+     * map's file. The new file is marked as cleanly closed, since it is
+     * consistent as soon as it has been written.
+     *
+     * @param newLength the number of slots of the new table
+     * @throws IOException if the new table cannot be written or moved
+     */
+    private void writeTable(int newLength) throws IOException {
+        long bytes = HEADER_BYTES + (long) newLength * slotWidth;
+        int newSize = 0;
+        try (FileChannel out = FileChannel.open(resizePath,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Writing the last byte grows the file, and the rest reads as 0
+            out.write(ByteBuffer.allocate(1), bytes - 1);
+            MappedByteBuffer[] to = mapChunks(out, newLength);
+            if (channel != null) {
+                for (int i = 0; i < length; i++) {
+                    ByteBuffer from = chunkOf(i);
+                    int offset = offsetOf(i);
+                    byte state = from.get(offset);
+                    if (isFull(state)) {
+                        int hash = from.getInt(offset + HASH_OFFSET);
+                        int ind = indexFor(hash, newLength);
+                        while (to[ind >>> chunkShift].get(offsetOf(ind))
+                                != EMPTY) {
+                            ind = ind + 1 == newLength ? 0 : ind + 1;
+                        }
+                        ByteBuffer chunk = to[ind >>> chunkShift];
+                        int dest = offsetOf(ind);
+                        chunk.put(dest + HASH_OFFSET, from, offset
+                                + HASH_OFFSET, Integer.BYTES + keyWidth);
+                        chunk.put(valueOffset(dest, FULL_A), from,
+                                valueOffset(offset, state), valueWidth);
+                        chunk.put(dest, FULL_A);
+                        newSize++;
+                    }
+                }
+            }
+            for (MappedByteBuffer chunk : to) {
+                chunk.force();
+            }
+            MappedByteBuffer newHeader = out.map(FileChannel.MapMode.READ_WRITE,
+                    0, HEADER_BYTES);
+            newHeader.putInt(VERSION_OFFSET, VERSION);
+            newHeader.putInt(KEY_WIDTH_OFFSET, keyWidth);
+            newHeader.putInt(VALUE_WIDTH_OFFSET, valueWidth);
+            newHeader.putInt(LENGTH_OFFSET, newLength);
+            newHeader.putInt(SIZE_OFFSET, newSize);
+            newHeader.putInt(TOMBSTONES_OFFSET, 0);
+            newHeader.put(CLEAN_OFFSET, (byte) 1);
+            // The magic number goes last, so a torn header is never accepted
+            newHeader.putInt(MAGIC_OFFSET, MAGIC);
+            newHeader.force();
+        }
+        closeChannel();
+        Files.move(resizePath, path, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Maps the slots of a table file in chunks of at most
+     * {@code CHUNK_BYTES}.
+     *
+     * @param file the channel of the file
+     * @param slots the number of slots in the file
+     * @return the mapped chunks
+     * @throws IOException if the file cannot be mapped
+     */
+    private MappedByteBuffer[] mapChunks(FileChannel file, int slots)
+            throws IOException {
+        int slotsPerChunk = 1 << chunkShift;
+        int count = (int) (((long) slots + slotsPerChunk - 1) >>> chunkShift);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = HEADER_BYTES + (long) i * slotsPerChunk * slotWidth;
+            int inChunk = Math.min(slotsPerChunk, slots - i * slotsPerChunk);
+            mapped[i] = file.map(FileChannel.MapMode.READ_WRITE, start,
+                    (long) inChunk * slotWidth);
+        }
+        return mapped;
+    }
+
+    /**
+     * Rebuilds the counters from the slots after the map was not closed
+     * cleanly, and stores them in the header.
+     */
+    private void recount() {
+        size = 0;
+        tombstones = 0;
+        for (int i = 0; i < length; i++) {
+            byte state = chunkOf(i).get(offsetOf(i));
+            if (isFull(state)) {
+                size++;
+            } else if (state == DELETED) {
+                tombstones++;
+            }
+        }
+        writeCounters();
+    }
+
+    /**
+     * Unmaps nothing explicitly (mappings are released once unreachable),
+     * but closes the map's channel if it is open.
+     *
+     * @throws IOException if the channel cannot be closed
+     */
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            header = null;
+            chunks = null;
+        }
+    }
+
+    /**
+     * Makes sure the map has not been closed.
+     *
+     * @throws IllegalStateException if the map has been closed
+     */
+    private void ensureOpen() {
+        if (channel == null) {
+            throw new IllegalStateException("This map has been closed.");
+        }
+    }
+
+    /**
+     * Walks the probe sequence of the key until it finds the key or an empty
+     * slot. Tombstones are stepped over since the key may lie beyond them.
+     *
+     * @param key the key to search for
+     * @return the slot holding the key, or -1 if the key is not in the map
+     */
+    private int findSlot(K key) {
+        keyCodec.write(keyScratch, 0, key);
+        int hash = hashKey();
+        int ind = indexFor(hash, length);
+        for (int probes = 0; probes < length; probes++) {
+            ByteBuffer chunk = chunkOf(ind);
+            int offset = offsetOf(ind);
+            byte state = chunk.get(offset);
+            if (state == EMPTY) {
+                return -1;
+            } else if (isFull(state) && keyMatches(chunk, offset, hash)) {
+                return ind;
+            }
+            ind = nextIndex(ind);
+        }
+        return -1;
+    }
+
+    /**
+     * Determines whether a full slot holds the key currently encoded in the
+     * scratch buffer, checking the cached hash code before the key bytes.
+     *
+     * @param chunk the chunk holding the slot
+     * @param offset the offset of the slot in the chunk
+     * @param hash the hash code of the key
+     * @return whether the slot holds the key
+     */
+    private boolean keyMatches(ByteBuffer chunk, int offset, int hash) {
+        if (chunk.getInt(offset + HASH_OFFSET) != hash) {
+            return false;
+        }
+        int start = offset + KEY_OFFSET;
+        int i = 0;
+        // Compare eight bytes at a time, then whatever is left one by one
+        for (; i + Long.BYTES <= keyWidth; i += Long.BYTES) {
+            if (chunk.getLong(start + i) != keyScratch.getLong(i)) {
+                return false;
+            }
+        }
+        for (; i < keyWidth; i++) {
+            if (chunk.get(start + i) != keyScratch.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stores a new entry in the given free slot, committing it by marking
+     * the slot full only after the key and value have been written. The key
+     * is copied from the scratch buffer it was encoded into.
+     *
+     * @param ind the slot to store the entry in
+     * @param hash the hash code of the key
+     * @param value the value of the entry
+     */
+    private void insertAt(int ind, int hash, V value) {
+        ByteBuffer chunk = chunkOf(ind);
+        int offset = offsetOf(ind);
+        chunk.putInt(offset + HASH_OFFSET, hash);
+        chunk.put(offset + KEY_OFFSET, keyScratch, 0, keyWidth);
+        valueCodec.write(chunk, valueOffset(offset, FULL_A), value);
+        commit(chunk, offset, FULL_A);
+        size++;
+        writeCounters();
+    }
+
+    /**
+     * Writes the state byte of a slot, after making sure every earlier write
+     * to the slot is ordered before it.
+     *
+     * @param chunk the chunk holding the slot
+     * @param offset the offset of the slot in the chunk
+     * @param state the new state of the slot
+     */
+    private void commit(ByteBuffer chunk, int offset, byte state) {
+        VarHandle.storeStoreFence();
+        chunk.put(offset, state);
+    }
+
+    /**
+     * Stores the counters in the header. They are only trusted on reopen if
+     * the map was closed cleanly.
+     */
+    private void writeCounters() {
+        header.putInt(SIZE_OFFSET, size);
+        header.putInt(TOMBSTONES_OFFSET, tombstones);
+    }
+
+    /**
+     * Returns the offset of the copy of the value a full slot is using.
+     *
+     * @param offset the offset of the slot in its chunk
+     * @param state the state of the slot, either FULL_A or FULL_B
+     * @return the offset of the value copy
+     */
+    private int valueOffset(int offset, byte state) {
+        int copy = state == FULL_B ? valueWidth : 0;
+        return offset + KEY_OFFSET + keyWidth + copy;
+    }
+
+    /**
+     * Determines whether a state byte belongs to a slot holding an entry.
+     *
+     * @param state the state byte in question
+     * @return whether the slot holds an entry
+     */
+    private static boolean isFull(byte state) {
+        return state == FULL_A || state == FULL_B;
+    }
+
+    /**
+     * Returns the chunk holding a slot.
+     *
+     * @param ind the slot in question
+     * @return the chunk holding it
+     */
+    private ByteBuffer chunkOf(int ind) {
+        return chunks[ind >>> chunkShift];
+    }
+
+    /**
+     * Returns the offset of a slot within its chunk.
+     *
+     * @param ind the slot in question
+     * @return the offset of its first byte
+     */
+    private int offsetOf(int ind) {
+        return (ind & ((1 << chunkShift) - 1)) * slotWidth;
+    }
+
+    /**
+     * Returns the next slot of a linear probe, wrapping around to the front
+     * of the table.
+     *
+     * @param ind the current slot
+     * @return the slot after it
+     */
+    private int nextIndex(int ind) {
+        ind++;
+        return ind == length ? 0 : ind;
+    }
+
+    /**
+     * Helper method to hash the key currently encoded in the scratch buffer,
+     * eight bytes at a time and then whatever is left one by one.
+     *
+     * @return the hash code of the key bytes
+     */
+    private int hashKey() {
+        long h = keyWidth;
+        int i = 0;
+        for (; i + Long.BYTES <= keyWidth; i += Long.BYTES) {
+            h = Long.rotateLeft((h ^ keyScratch.getLong(i)) * MIX, 31);
+        }
+        for (; i < keyWidth; i++) {
+            h = Long.rotateLeft((h ^ keyScratch.get(i)) * MIX, 31);
+        }
+        h = (h ^ (h >>> 32)) * MIX;
+        return (int) (h ^ (h >>> 29));
+    }
+
+    /**
+     * Compresses a hash code into an index of a table of the given length.
+     * Taking the absolute value of the remainder keeps the index valid even
+     * for {@code Integer.MIN_VALUE}.
+     *
+     * @param hash the hash code to compress
+     * @param length the length of the table
+     * @return the home slot of the hash code
+     */
+    private static int indexFor(int hash, int length) {
+        return Math.abs(hash % length);
+    }
+}
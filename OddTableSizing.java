@@ -0,0 +1,31 @@
+/**
+ * The sizing policy described by HashMapInterface: any requested length is
+ * used as is, tables grow to 2 * old length + 1, and hash codes are
+ * compressed by taking their remainder.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class OddTableSizing implements TableSizing {
+
+    @Override
+    public int tableLength(int length) {
+        return length;
+    }
+
+    @Override
+    public int grow(int length) {
+        return (2 * length) + 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The absolute value is taken of the remainder rather than of the hash
+     * code, since {@code Math.abs(Integer.MIN_VALUE)} is still negative.
+     */
+    @Override
+    public int indexFor(int hash, int length) {
+        return Math.abs(hash % length);
+    }
+}
@@ -0,0 +1,435 @@
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An implementation of HashMap that keeps its entries outside of the Java
+ * heap, for maps of many small fixed-width keys and values.
+ *
+ * Every entry is written into a slot of direct memory through the key and
+ * value codecs, so the garbage collector never sees the entries and the
+ * memory used is exactly {@code length * slotWidth} bytes, with no object
+ * headers or references. Collisions are resolved with linear probing. A slot
+ * is laid out as a state byte (empty, full or tombstone), the cached hash
+ * code of the key, the key bytes and the value bytes. Keys are compared by
+ * their encoded bytes, so looking a key up never decodes a stored key.
+ *
+ * Since a single direct buffer cannot exceed 2 GB, the slots are spread over
+ * chunks of {@code CHUNK_BYTES} at most. The direct memory of a table is
+ * released once the garbage collector reclaims its (small) chunk objects.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class OffHeapHashMap<K, V> implements HashMapInterface<K, V> {
+
+    /**
+     * The largest number of bytes allocated in a single direct buffer.
+     */
+    public static final int CHUNK_BYTES = 1 << 30;
+
+    private static final byte EMPTY = 0;
+    private static final byte FULL = 1;
+    private static final byte DELETED = 2;
+    private static final int HASH_OFFSET = 1;
+    private static final int KEY_OFFSET = HASH_OFFSET + Integer.BYTES;
+
+    private final FixedWidthCodec<K> keyCodec;
+    private final FixedWidthCodec<V> valueCodec;
+    private final int keyWidth;
+    private final int slotWidth;
+    private final int valueOffset;
+    private final int chunkShift;
+    private final ByteBuffer keyScratch;
+    private ByteBuffer[] chunks;
+    private int length;
+    private int size;
+    private int tombstones;
+
+    /**
+     * Create a hash map with no entries. The table has an initial capacity
+     * of {@code INITIAL_CAPACITY}.
+     *
+     * @param keyCodec the codec writing keys into slots
+     * @param valueCodec the codec writing values into slots
+     * @throws IllegalArgumentException if either codec is null
+     */
+    public OffHeapHashMap(FixedWidthCodec<K> keyCodec,
+                          FixedWidthCodec<V> valueCodec) {
+        this(INITIAL_CAPACITY, keyCodec, valueCodec);
+    }
+
+    /**
+     * Create a hash map with no entries. The table has an initial capacity
+     * of {@code initialCapacity}.
+     *
+     * @param initialCapacity initial capacity of the table
+     * @param keyCodec the codec writing keys into slots
+     * @param valueCodec the codec writing values into slots
+     * @throws IllegalArgumentException if either codec is null or
+     * initialCapacity is non-positive
+     */
+    public OffHeapHashMap(int initialCapacity, FixedWidthCodec<K> keyCodec,
+                          FixedWidthCodec<V> valueCodec) {
+        if (keyCodec == null || valueCodec == null) {
+            throw new IllegalArgumentException("Input codec is null, please "
+                    + "use a valid input.");
+        } else if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("The initial capacity must be "
+                    + "positive, please use a valid input.");
+        }
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        keyWidth = keyCodec.width();
+        valueOffset = KEY_OFFSET + keyWidth;
+        slotWidth = valueOffset + valueCodec.width();
+        // Every chunk holds the same power of two number of slots
+        int slotsPerChunk = Integer.highestOneBit(CHUNK_BYTES / slotWidth);
+        chunkShift = Integer.numberOfTrailingZeros(slotsPerChunk);
+        keyScratch = ByteBuffer.allocate(keyWidth);
+        allocate(initialCapacity);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (value == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or value is null"
+                    + ", please use a valid input.");
+        }
+        // Tombstones occupy slots too, so they count towards the load factor
+        if (((size + tombstones + 1) / ((double) length)) > MAX_LOAD_FACTOR) {
+            resizeBackingTable((2 * length) + 1);
+        }
+        int hash = key.hashCode();
+        keyCodec.write(keyScratch, 0, key);
+        int ind = indexFor(hash, length);
+        int firstTombstone = -1;
+        for (int probes = 0; probes < length; probes++) {
+            ByteBuffer chunk = chunkOf(ind);
+            int offset = offsetOf(ind);
+            byte state = chunk.get(offset);
+            if (state == EMPTY) {
+                // Case 1: The key is absent, reuse the first tombstone passed
+                if (firstTombstone != -1) {
+                    ind = firstTombstone;
+                    tombstones--;
+                }
+                insertAt(ind, hash, value);
+                return null;
+            } else if (state == DELETED) {
+                if (firstTombstone == -1) {
+                    firstTombstone = ind;
+                }
+            } else if (keyMatches(chunk, offset, hash)) {
+                // Case 2: The key is already mapped, replace its value
+                V rep = valueCodec.read(chunk, offset + valueOffset);
+                valueCodec.write(chunk, offset + valueOffset, value);
+                return rep;
+            }
+            ind = nextIndex(ind);
+        }
+        // Case 3: Every slot was probed, so the key can only go in a tombstone
+        tombstones--;
+        insertAt(firstTombstone, hash, value);
+        return null;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        int ind = findSlot(key);
+        if (ind == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        ByteBuffer chunk = chunkOf(ind);
+        int offset = offsetOf(ind);
+        V rem = valueCodec.read(chunk, offset + valueOffset);
+        chunk.put(offset, DELETED);
+        size--;
+        tombstones++;
+        return rem;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        int ind = findSlot(key);
+        if (ind == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        return valueCodec.read(chunkOf(ind), offsetOf(ind) + valueOffset);
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        return findSlot(key) != -1;
+    }
+
+    @Override
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> set = new HashSet<>();
+        for (int i = 0; i < length; i++) {
+            ByteBuffer chunk = chunkOf(i);
+            int offset = offsetOf(i);
+            if (chunk.get(offset) == FULL) {
+                set.add(keyCodec.read(chunk, offset + KEY_OFFSET));
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public List<V> values() {
+        LinkedList<V> list = new LinkedList<>();
+        for (int i = 0; i < length; i++) {
+            ByteBuffer chunk = chunkOf(i);
+            int offset = offsetOf(i);
+            if (chunk.get(offset) == FULL) {
+                list.addLast(valueCodec.read(chunk, offset + valueOffset));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Since every entry needs a slot of its own, the new length may not be
+     * smaller than the number of entries in the map. The slots are copied
+     * byte for byte, without decoding any entry, and tombstones are not
+     * carried over to the new table.
+     *
+     * @throws IllegalArgumentException if length is non-positive or smaller
+     * than the number of entries in the map
+     */
+    @Override
+    public void resizeBackingTable(int length) {
+        if (length <= 0 || length < size) {
+            throw new IllegalArgumentException("The input length is not "
+                    + "positive or cannot hold every entry of the map, and "
+                    + "therefore is invalid. Please use an input of at least "
+                    + "max(1, size).");
+        }
+        ByteBuffer[] oldChunks = chunks;
+        int oldLength = this.length;
+        int oldSize = size;
+        allocate(length);
+        for (int i = 0; i < oldLength; i++) {
+            ByteBuffer from = oldChunks[i >>> chunkShift];
+            int fromOffset = offsetOf(i);
+            if (from.get(fromOffset) == FULL) {
+                int hash = from.getInt(fromOffset + HASH_OFFSET);
+                int ind = indexFor(hash, length);
+                while (chunkOf(ind).get(offsetOf(ind)) != EMPTY) {
+                    ind = nextIndex(ind);
+                }
+                chunkOf(ind).put(offsetOf(ind), from, fromOffset, slotWidth);
+            }
+        }
+        size = oldSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Open addressing has no external chains, so every occupied slot is
+     * reported as a chain holding exactly one decoded entry, and empty slots
+     * or tombstones are reported as null.
+     */
+    @Override
+    public LinkedList<MapEntry<K, V>>[] getTable() {
+        LinkedList<MapEntry<K, V>>[] table = ((LinkedList<MapEntry<K, V>>[])
+                new LinkedList[length]);
+        for (int i = 0; i < length; i++) {
+            ByteBuffer chunk = chunkOf(i);
+            int offset = offsetOf(i);
+            if (chunk.get(offset) == FULL) {
+                table[i] = new LinkedList<>();
+                table[i].addFirst(new MapEntry<>(
+                        keyCodec.read(chunk, offset + KEY_OFFSET),
+                        valueCodec.read(chunk, offset + valueOffset)));
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the number of bytes each slot takes up.
+     *
+     * @return the width of a slot in bytes
+     */
+    public int slotWidth() {
+        return slotWidth;
+    }
+
+    /**
+     * Returns the number of bytes of direct memory held by the table.
+     *
+     * @return the size of the table in bytes
+     */
+    public long offHeapBytes() {
+        return (long) length * slotWidth;
+    }
+
+    /**
+     * Walks the probe sequence of the key until it finds the key or an empty
+     * slot. Tombstones are stepped over since the key may lie beyond them.
+     *
+     * @param key the key to search for
+     * @return the slot holding the key, or -1 if the key is not in the map
+     */
+    private int findSlot(K key) {
+        int hash = key.hashCode();
+        keyCodec.write(keyScratch, 0, key);
+        int ind = indexFor(hash, length);
+        for (int probes = 0; probes < length; probes++) {
+            ByteBuffer chunk = chunkOf(ind);
+            int offset = offsetOf(ind);
+            byte state = chunk.get(offset);
+            if (state == EMPTY) {
+                return -1;
+            } else if (state == FULL && keyMatches(chunk, offset, hash)) {
+                return ind;
+            }
+            ind = nextIndex(ind);
+        }
+        return -1;
+    }
+
+    /**
+     * Determines whether a full slot holds the key currently encoded in the
+     * scratch buffer, checking the cached hash code before the key bytes.
+     *
+     * @param chunk the chunk holding the slot
+     * @param offset the offset of the slot in the chunk
+     * @param hash the hash code of the key
+     * @return whether the slot holds the key
+     */
+    private boolean keyMatches(ByteBuffer chunk, int offset, int hash) {
+        if (chunk.getInt(offset + HASH_OFFSET) != hash) {
+            return false;
+        }
+        int start = offset + KEY_OFFSET;
+        int i = 0;
+        // Compare eight bytes at a time, then whatever is left one by one
+        for (; i + Long.BYTES <= keyWidth; i += Long.BYTES) {
+            if (chunk.getLong(start + i) != keyScratch.getLong(i)) {
+                return false;
+            }
+        }
+        for (; i < keyWidth; i++) {
+            if (chunk.get(start + i) != keyScratch.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stores a new entry in the given free slot. The key is copied from the
+     * scratch buffer it was encoded into.
+     *
+     * @param ind the slot to store the entry in
+     * @param hash the hash code of the key
+     * @param value the value of the entry
+     */
+    private void insertAt(int ind, int hash, V value) {
+        ByteBuffer chunk = chunkOf(ind);
+        int offset = offsetOf(ind);
+        chunk.putInt(offset + HASH_OFFSET, hash);
+        chunk.put(offset + KEY_OFFSET, keyScratch, 0, keyWidth);
+        valueCodec.write(chunk, offset + valueOffset, value);
+        chunk.put(offset, FULL);
+        size++;
+    }
+
+    /**
+     * Replaces the table with an empty one of the given length. Direct
+     * buffers are always zeroed, so every new slot starts out empty.
+     *
+     * @param newLength the number of slots of the new table
+     */
+    private void allocate(int newLength) {
+        int slotsPerChunk = 1 << chunkShift;
+        int count = (int) (((long) newLength + slotsPerChunk - 1)
+                >>> chunkShift);
+        chunks = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            int slots = Math.min(slotsPerChunk, newLength - i * slotsPerChunk);
+            chunks[i] = ByteBuffer.allocateDirect(slots * slotWidth);
+        }
+        length = newLength;
+        size = 0;
+        tombstones = 0;
+    }
+
+    /**
+     * Returns the chunk holding a slot.
+     *
+     * @param ind the slot in question
+     * @return the chunk holding it
+     */
+    private ByteBuffer chunkOf(int ind) {
+        return chunks[ind >>> chunkShift];
+    }
+
+    /**
+     * Returns the offset of a slot within its chunk.
+     *
+     * @param ind the slot in question
+     * @return the offset of its first byte
+     */
+    private int offsetOf(int ind) {
+        return (ind & ((1 << chunkShift) - 1)) * slotWidth;
+    }
+
+    /**
+     * Returns the next slot of a linear probe, wrapping around to the front
+     * of the table.
+     *
+     * @param ind the current slot
+     * @return the slot after it
+     */
+    private int nextIndex(int ind) {
+        ind++;
+        return ind == length ? 0 : ind;
+    }
+
+    /**
+     * Compresses a hash code into an index of a table of the given length.
+     * Taking the absolute value of the remainder keeps the index valid even
+     * for {@code Integer.MIN_VALUE}.
+     *
+     * @param hash the hash code to compress
+     * @param length the length of the table
+     * @return the home slot of the hash code
+     */
+    private static int indexFor(int hash, int length) {
+        return Math.abs(hash % length);
+    }
+}
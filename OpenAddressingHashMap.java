@@ -0,0 +1,314 @@
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An implementation of HashMap that resolves collisions with linear probing
+ * instead of external chaining.
+ *
+ * Keys, values and cached hash codes are kept in flat parallel arrays, so a
+ * lookup walks consecutive array slots rather than chasing list nodes, and a
+ * put allocates nothing unless the table has to be regrown. Removed entries
+ * leave a tombstone behind so that probe sequences running through them stay
+ * intact; tombstones count towards the load factor and are dropped whenever
+ * the table is rebuilt.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class OpenAddressingHashMap<K, V> implements HashMapInterface<K, V> {
+
+    /**
+     * Marker stored in the key array for slots whose entry was removed.
+     */
+    private static final Object TOMBSTONE = new Object();
+
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int size;
+    private int tombstones;
+
+    /**
+     * Create a hash map with no entries. The backing arrays have an initial
+     * capacity of {@code INITIAL_CAPACITY}.
+     */
+    public OpenAddressingHashMap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Create a hash map with no entries. The backing arrays have an initial
+     * capacity of {@code initialCapacity}.
+     *
+     * @param initialCapacity initial capacity of the backing arrays
+     * @throws IllegalArgumentException if initialCapacity is non-positive
+     */
+    public OpenAddressingHashMap(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("The initial capacity must be "
+                    + "positive, please use a valid input.");
+        }
+        keys = new Object[initialCapacity];
+        values = new Object[initialCapacity];
+        hashes = new int[initialCapacity];
+        size = 0;
+        tombstones = 0;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (value == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or value is null"
+                    + ", please use a valid input.");
+        }
+        // Tombstones occupy slots too, so they count towards the load factor
+        if (((size + tombstones + 1) / ((double) keys.length))
+                > MAX_LOAD_FACTOR) {
+            resizeBackingTable((2 * keys.length) + 1);
+        }
+        int hash = key.hashCode();
+        int ind = indexFor(hash, keys.length);
+        int firstTombstone = -1;
+        for (int probes = 0; probes < keys.length; probes++) {
+            Object cur = keys[ind];
+            if (cur == null) {
+                // Case 1: The key is absent, reuse the first tombstone passed
+                if (firstTombstone != -1) {
+                    ind = firstTombstone;
+                    tombstones--;
+                }
+                insertAt(ind, hash, key, value);
+                return null;
+            } else if (cur == TOMBSTONE) {
+                if (firstTombstone == -1) {
+                    firstTombstone = ind;
+                }
+            } else if (hashes[ind] == hash && cur.equals(key)) {
+                // Case 2: The key is already mapped, replace its value
+                V rep = (V) values[ind];
+                values[ind] = value;
+                return rep;
+            }
+            ind = nextIndex(ind);
+        }
+        // Case 3: Every slot was probed, so the key can only go in a tombstone
+        tombstones--;
+        insertAt(firstTombstone, hash, key, value);
+        return null;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        int ind = findSlot(key);
+        if (ind == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        V rem = (V) values[ind];
+        keys[ind] = TOMBSTONE;
+        values[ind] = null;
+        size--;
+        tombstones++;
+        return rem;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        int ind = findSlot(key);
+        if (ind == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        return (V) values[ind];
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        return findSlot(key) != -1;
+    }
+
+    @Override
+    public void clear() {
+        keys = new Object[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        size = 0;
+        tombstones = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> set = new HashSet<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (isOccupied(i)) {
+                set.add((K) keys[i]);
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public List<V> values() {
+        LinkedList<V> list = new LinkedList<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (isOccupied(i)) {
+                list.addLast((V) values[i]);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Since every entry needs a slot of its own, the new length may not be
+     * smaller than the number of entries in the map. Tombstones are not
+     * carried over to the new table.
+     *
+     * @throws IllegalArgumentException if length is non-positive or smaller
+     * than the number of entries in the map
+     */
+    @Override
+    public void resizeBackingTable(int length) {
+        if (length <= 0 || length < size) {
+            throw new IllegalArgumentException("The input length is not "
+                    + "positive or cannot hold every entry of the map, and "
+                    + "therefore is invalid. Please use an input of at least "
+                    + "max(1, size).");
+        }
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        keys = new Object[length];
+        values = new Object[length];
+        hashes = new int[length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object cur = oldKeys[i];
+            if (cur != null && cur != TOMBSTONE) {
+                // The new table has no tombstones, so take the first gap
+                int ind = indexFor(oldHashes[i], length);
+                while (keys[ind] != null) {
+                    ind = nextIndex(ind);
+                }
+                keys[ind] = cur;
+                values[ind] = oldValues[i];
+                hashes[ind] = oldHashes[i];
+            }
+        }
+        tombstones = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Open addressing has no external chains, so every occupied slot is
+     * reported as a chain holding exactly one entry, and empty slots or
+     * tombstones are reported as null.
+     */
+    @Override
+    public LinkedList<MapEntry<K, V>>[] getTable() {
+        LinkedList<MapEntry<K, V>>[] table = ((LinkedList<MapEntry<K, V>>[])
+                new LinkedList[keys.length]);
+        for (int i = 0; i < keys.length; i++) {
+            if (isOccupied(i)) {
+                table[i] = new LinkedList<>();
+                table[i].addFirst(new MapEntry<>((K) keys[i], (V) values[i]));
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Walks the probe sequence of the key until it finds the key or an empty
+     * slot. Tombstones are stepped over since the key may lie beyond them.
+     *
+     * @param key the key to search for
+     * @return the slot holding the key, or -1 if the key is not in the map
+     */
+    private int findSlot(Object key) {
+        int hash = key.hashCode();
+        int ind = indexFor(hash, keys.length);
+        for (int probes = 0; probes < keys.length; probes++) {
+            Object cur = keys[ind];
+            if (cur == null) {
+                return -1;
+            } else if (cur != TOMBSTONE && hashes[ind] == hash
+                    && cur.equals(key)) {
+                return ind;
+            }
+            ind = nextIndex(ind);
+        }
+        return -1;
+    }
+
+    /**
+     * Stores a new entry in the given free slot.
+     *
+     * @param ind the slot to store the entry in
+     * @param hash the hash code of the key
+     * @param key the key of the entry
+     * @param value the value of the entry
+     */
+    private void insertAt(int ind, int hash, K key, V value) {
+        keys[ind] = key;
+        values[ind] = value;
+        hashes[ind] = hash;
+        size++;
+    }
+
+    /**
+     * Determines whether the slot holds a live entry, which is defined as
+     * being neither empty nor a tombstone.
+     *
+     * @param ind the slot in question
+     * @return whether the slot holds an entry
+     */
+    private boolean isOccupied(int ind) {
+        return keys[ind] != null && keys[ind] != TOMBSTONE;
+    }
+
+    /**
+     * Returns the next slot of a linear probe, wrapping around to the front
+     * of the table.
+     *
+     * @param ind the current slot
+     * @return the slot after it
+     */
+    private int nextIndex(int ind) {
+        ind++;
+        return ind == keys.length ? 0 : ind;
+    }
+
+    /**
+     * Compresses a hash code into an index of a table of the given length.
+     * Taking the absolute value of the remainder keeps the index valid even
+     * for {@code Integer.MIN_VALUE}.
+     *
+     * @param hash the hash code to compress
+     * @param length the length of the table
+     * @return the home slot of the hash code
+     */
+    private static int indexFor(int hash, int length) {
+        return Math.abs(hash % length);
+    }
+}
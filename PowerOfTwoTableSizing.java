@@ -0,0 +1,53 @@
+/**
+ * A sizing policy that keeps every table length a power of two and doubles
+ * it on growth, so that hash codes can be compressed with a bit mask
+ * instead of an integer division.
+ *
+ * A mask only keeps the low bits of the hash code, so the hash code is
+ * first run through a bit mixer that folds its high bits into the low ones.
+ * Without it, keys whose hash codes differ only in their high bits would
+ * all collide.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class PowerOfTwoTableSizing implements TableSizing {
+
+    /**
+     * The largest power of two that is a valid array length.
+     */
+    private static final int MAXIMUM_LENGTH = 1 << 30;
+
+    @Override
+    public int tableLength(int length) {
+        if (length >= MAXIMUM_LENGTH) {
+            return MAXIMUM_LENGTH;
+        } else if (length == 1) {
+            return 1;
+        }
+        return Integer.highestOneBit(length - 1) << 1;
+    }
+
+    @Override
+    public int grow(int length) {
+        return length >= MAXIMUM_LENGTH ? MAXIMUM_LENGTH : length << 1;
+    }
+
+    @Override
+    public int indexFor(int hash, int length) {
+        return spread(hash) & (length - 1);
+    }
+
+    /**
+     * Mixes every bit of a hash code into its low bits, using the first
+     * steps of the MurmurHash3 finalizer.
+     *
+     * @param hash the hash code to mix
+     * @return the mixed hash code
+     */
+    private static int spread(int hash) {
+        int h = hash ^ (hash >>> 16);
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * A sizing policy that keeps every table length prime, growing to the first
+ * prime after 2 * old length + 1. Hash codes are compressed by taking their
+ * remainder, which a prime length makes depend on every bit of the hash.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class PrimeTableSizing implements TableSizing {
+
+    @Override
+    public int tableLength(int length) {
+        int candidate = Math.max(length, 2);
+        while (!isPrime(candidate)) {
+            candidate++;
+        }
+        return candidate;
+    }
+
+    @Override
+    public int grow(int length) {
+        return tableLength((2 * length) + 1);
+    }
+
+    @Override
+    public int indexFor(int hash, int length) {
+        return Math.abs(hash % length);
+    }
+
+    /**
+     * Determines whether a number is prime by trial division by the odd
+     * numbers up to its square root. This only runs when a table is sized.
+     *
+     * @param n the number in question, at least 2
+     * @return whether the number is prime
+     */
+    private static boolean isPrime(int n) {
+        if (n % 2 == 0) {
+            return n == 2;
+        }
+        for (int d = 3; (long) d * d <= n; d += 2) {
+            if (n % d == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,817 @@
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A thread-safe, snapshot-isolated implementation of HashMap built as a
+ * persistent hash array mapped trie (HAMT).
+ *
+ * Each level of the trie consumes 5 bits of the spread hash code of a key.
+ * A node keeps a 32-bit bitmap of the branches it has, and a packed array
+ * with two slots per branch: a key and its value, or null and the child
+ * node. Keys whose whole hash codes are equal share a collision node.
+ *
+ * Nodes are never modified once published. A write copies only the nodes on
+ * the path to the key it changes, shares every other node with the previous
+ * version, and installs the new root with a single compare-and-set, retrying
+ * if another writer got there first. Readers simply read the root and walk
+ * down from it, so they never lock, never allocate and always see one
+ * complete version of the map. {@code snapshot} hands out such a version as
+ * an immutable map of its own.
+ *
+ * The default {@code putIfAbsent}, {@code computeIfAbsent}, {@code compute}
+ * and {@code merge} of HashMapInterface are built from separate calls, so
+ * they are not atomic on this map. {@code putAll} is.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class SnapshotHashMap<K, V> implements HashMapInterface<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final AtomicReference<Root> root;
+
+    /**
+     * Create an empty map.
+     */
+    public SnapshotHashMap() {
+        root = new AtomicReference<>(Root.EMPTY);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (value == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or value is null"
+                    + ", please use a valid input.");
+        }
+        int hash = spread(key.hashCode());
+        Change change = new Change();
+        while (true) {
+            Root cur = root.get();
+            change.reset();
+            Object node = put(cur.node, 0, hash, key, value, change);
+            if (node == cur.node || root.compareAndSet(cur,
+                    new Root(node, cur.size + change.added))) {
+                return (V) change.old;
+            }
+        }
+    }
+
+    /**
+     * Adds every entry of the given map to this map as a single atomic
+     * write: readers see either none or all of the new entries.
+     *
+     * @param map the entries to add
+     * @throws IllegalArgumentException if map is null or holds a null key or
+     * value, in which case this map is left unchanged
+     */
+    public void putAll(Map<? extends K, ? extends V> map) {
+        if (map == null) {
+            throw new IllegalArgumentException("Input map is null, please "
+                    + "use a valid input.");
+        }
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new IllegalArgumentException("Input map contains a null "
+                        + "key and/or value, please use a valid input.");
+            }
+        }
+        Change change = new Change();
+        while (true) {
+            Root cur = root.get();
+            Object node = cur.node;
+            int size = cur.size;
+            for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                change.reset();
+                node = put(node, 0, spread(entry.getKey().hashCode()),
+                        entry.getKey(), entry.getValue(), change);
+                size += change.added;
+            }
+            if (node == cur.node
+                    || root.compareAndSet(cur, new Root(node, size))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        int hash = spread(key.hashCode());
+        Change change = new Change();
+        while (true) {
+            Root cur = root.get();
+            change.reset();
+            Object node = remove(cur.node, 0, hash, key, change);
+            if (node == cur.node) {
+                throw new NoSuchElementException("The input key does not have "
+                        + "a corresponding value in this map.");
+            } else if (root.compareAndSet(cur, new Root(node, cur.size - 1))) {
+                return (V) change.old;
+            }
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        return get(root.get(), key);
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return containsKey(root.get(), key);
+    }
+
+    @Override
+    public void clear() {
+        root.set(Root.EMPTY);
+    }
+
+    @Override
+    public int size() {
+        return root.get().size;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return keySet(root.get());
+    }
+
+    @Override
+    public List<V> values() {
+        return values(root.get());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * A trie grows and shrinks one node at a time and has no table to
+     * resize, so this only checks its argument.
+     */
+    @Override
+    public void resizeBackingTable(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("The input length is not "
+                    + "positive and therefore is invalid. Please use an input "
+                    + "greater than 0.");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * A trie has no table of chains, so the returned array has one chain per
+     * branch of the root, listing every entry below that branch.
+     */
+    @Override
+    public LinkedList<MapEntry<K, V>>[] getTable() {
+        return getTable(root.get());
+    }
+
+    /**
+     * Returns the current version of the map as an immutable map. Reading
+     * it never reflects writes made to this map afterwards, and trying to
+     * modify it throws UnsupportedOperationException.
+     *
+     * @return a snapshot of the map
+     */
+    public HashMapInterface<K, V> snapshot() {
+        return new Snapshot<>(root.get());
+    }
+
+    /**
+     * Helper method to look up a key in one version of the map, walking
+     * down the trie without allocating.
+     *
+     * @param version the version to read
+     * @param key the key to search for
+     * @param <K> the type of key
+     * @param <V> the type of value
+     * @return the value of the key
+     * @throws IllegalArgumentException if key is null
+     * @throws NoSuchElementException if the key is not in the version
+     */
+    private static <K, V> V get(Root version, K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        Object value = find(version.node, spread(key.hashCode()), key);
+        if (value == null) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        return (V) value;
+    }
+
+    /**
+     * Helper method to check for a key in one version of the map.
+     *
+     * @param version the version to read
+     * @param key the key to search for
+     * @param <K> the type of key
+     * @return whether the key is in the version
+     * @throws IllegalArgumentException if key is null
+     */
+    private static <K> boolean containsKey(Root version, K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        return find(version.node, spread(key.hashCode()), key) != null;
+    }
+
+    /**
+     * Helper method to collect the keys of one version of the map.
+     *
+     * @param version the version to read
+     * @param <K> the type of key
+     * @return a set of the keys
+     */
+    private static <K> Set<K> keySet(Root version) {
+        Set<K> set = new HashSet<>();
+        LinkedList<Object> entries = new LinkedList<>();
+        collect(version.node, entries);
+        while (!entries.isEmpty()) {
+            set.add((K) entries.removeFirst());
+            entries.removeFirst();
+        }
+        return set;
+    }
+
+    /**
+     * Helper method to collect the values of one version of the map.
+     *
+     * @param version the version to read
+     * @param <V> the type of value
+     * @return a list of the values
+     */
+    private static <V> List<V> values(Root version) {
+        LinkedList<V> list = new LinkedList<>();
+        LinkedList<Object> entries = new LinkedList<>();
+        collect(version.node, entries);
+        while (!entries.isEmpty()) {
+            entries.removeFirst();
+            list.addLast((V) entries.removeFirst());
+        }
+        return list;
+    }
+
+    /**
+     * Helper method to list the entries of one version of the map by branch
+     * of the root.
+     *
+     * @param version the version to read
+     * @param <K> the type of key
+     * @param <V> the type of value
+     * @return one chain per branch of the root
+     */
+    private static <K, V> LinkedList<MapEntry<K, V>>[] getTable(
+            Root version) {
+        LinkedList<MapEntry<K, V>>[] table = ((LinkedList<MapEntry<K, V>>[])
+                new LinkedList[1 << BITS]);
+        if (version.node instanceof BitmapNode) {
+            BitmapNode node = (BitmapNode) version.node;
+            for (int branch = 0; branch < table.length; branch++) {
+                int bit = 1 << branch;
+                if ((node.bitmap & bit) != 0) {
+                    int ind = 2 * Integer.bitCount(node.bitmap & (bit - 1));
+                    LinkedList<Object> entries = new LinkedList<>();
+                    collectSlot(node.array[ind], node.array[ind + 1],
+                            entries);
+                    table[branch] = new LinkedList<>();
+                    while (!entries.isEmpty()) {
+                        table[branch].addLast(new MapEntry<>(
+                                (K) entries.removeFirst(),
+                                (V) entries.removeFirst()));
+                    }
+                }
+            }
+        } else if (version.node != null) {
+            // A lone collision node sits in the branch of its hash
+            CollisionNode node = (CollisionNode) version.node;
+            int branch = node.hash & MASK;
+            table[branch] = new LinkedList<>();
+            for (int i = 0; i < node.array.length; i += 2) {
+                table[branch].addLast(new MapEntry<>((K) node.array[i],
+                        (V) node.array[i + 1]));
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Helper method to find the value of a key below a node.
+     *
+     * @param node the node to start from, possibly null
+     * @param hash the spread hash code of the key
+     * @param key the key to search for
+     * @return the value of the key, or null if it is absent
+     */
+    private static Object find(Object node, int hash, Object key) {
+        int shift = 0;
+        while (node instanceof BitmapNode) {
+            BitmapNode bitmapNode = (BitmapNode) node;
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmapNode.bitmap & bit) == 0) {
+                return null;
+            }
+            int ind = 2 * Integer.bitCount(bitmapNode.bitmap & (bit - 1));
+            Object k = bitmapNode.array[ind];
+            if (k != null) {
+                return k.equals(key) ? bitmapNode.array[ind + 1] : null;
+            }
+            node = bitmapNode.array[ind + 1];
+            shift += BITS;
+        }
+        if (node != null) {
+            CollisionNode collisionNode = (CollisionNode) node;
+            if (collisionNode.hash == hash) {
+                Object[] array = collisionNode.array;
+                for (int i = 0; i < array.length; i += 2) {
+                    if (array[i].equals(key)) {
+                        return array[i + 1];
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to build a copy of a subtree with a key mapped to a
+     * value. Nodes off the path to the key are shared with the original.
+     *
+     * @param node the root of the subtree, possibly null
+     * @param shift the number of hash bits consumed above the subtree
+     * @param hash the spread hash code of the key
+     * @param key the key to map
+     * @param value the value to map it to
+     * @param change records the replaced value and whether a key was added
+     * @return the root of the new subtree, or node itself if nothing changed
+     */
+    private static Object put(Object node, int shift, int hash, Object key,
+                              Object value, Change change) {
+        if (node == null) {
+            change.added = 1;
+            return new BitmapNode(bitFor(hash, shift),
+                    new Object[] {key, value});
+        } else if (node instanceof CollisionNode) {
+            CollisionNode collisionNode = (CollisionNode) node;
+            if (collisionNode.hash != hash) {
+                // Push the collision node down behind a bitmap node
+                BitmapNode parent = new BitmapNode(
+                        bitFor(collisionNode.hash, shift),
+                        new Object[] {null, collisionNode});
+                return put(parent, shift, hash, key, value, change);
+            }
+            Object[] array = collisionNode.array;
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i].equals(key)) {
+                    change.old = array[i + 1];
+                    if (array[i + 1] == value) {
+                        return node;
+                    }
+                    return new CollisionNode(hash, replaced(array, i + 1,
+                            value));
+                }
+            }
+            change.added = 1;
+            return new CollisionNode(hash, inserted(array, array.length, key,
+                    value));
+        }
+        BitmapNode bitmapNode = (BitmapNode) node;
+        int bit = bitFor(hash, shift);
+        int ind = 2 * Integer.bitCount(bitmapNode.bitmap & (bit - 1));
+        Object[] array = bitmapNode.array;
+        if ((bitmapNode.bitmap & bit) == 0) {
+            // Case 1: The branch is new, so store the entry inline
+            change.added = 1;
+            return new BitmapNode(bitmapNode.bitmap | bit,
+                    inserted(array, ind, key, value));
+        }
+        Object k = array[ind];
+        if (k == null) {
+            // Case 2: The branch is a child node, so put the key into it
+            Object child = put(array[ind + 1], shift + BITS, hash, key, value,
+                    change);
+            if (child == array[ind + 1]) {
+                return node;
+            }
+            return new BitmapNode(bitmapNode.bitmap,
+                    replaced(array, ind + 1, child));
+        } else if (k.equals(key)) {
+            // Case 3: The branch holds the key, so replace its value
+            change.old = array[ind + 1];
+            if (array[ind + 1] == value) {
+                return node;
+            }
+            return new BitmapNode(bitmapNode.bitmap,
+                    replaced(array, ind + 1, value));
+        }
+        // Case 4: The branch holds another key, so split it into a child
+        change.added = 1;
+        Object child = pair(shift + BITS, k, array[ind + 1],
+                spread(k.hashCode()), key, value, hash);
+        Object[] copy = array.clone();
+        copy[ind] = null;
+        copy[ind + 1] = child;
+        return new BitmapNode(bitmapNode.bitmap, copy);
+    }
+
+    /**
+     * Helper method to build a subtree holding two entries whose hash codes
+     * agree on every bit consumed above it.
+     *
+     * @param shift the number of hash bits consumed above the subtree
+     * @param key1 the first key
+     * @param value1 the value of the first key
+     * @param hash1 the spread hash code of the first key
+     * @param key2 the second key
+     * @param value2 the value of the second key
+     * @param hash2 the spread hash code of the second key
+     * @return the root of the subtree
+     */
+    private static Object pair(int shift, Object key1, Object value1,
+                               int hash1, Object key2, Object value2,
+                               int hash2) {
+        if (hash1 == hash2) {
+            return new CollisionNode(hash1,
+                    new Object[] {key1, value1, key2, value2});
+        }
+        int bit1 = bitFor(hash1, shift);
+        int bit2 = bitFor(hash2, shift);
+        if (bit1 == bit2) {
+            return new BitmapNode(bit1, new Object[] {null, pair(shift + BITS,
+                    key1, value1, hash1, key2, value2, hash2)});
+        } else if (Integer.compareUnsigned(bit1, bit2) < 0) {
+            return new BitmapNode(bit1 | bit2,
+                    new Object[] {key1, value1, key2, value2});
+        }
+        return new BitmapNode(bit1 | bit2,
+                new Object[] {key2, value2, key1, value1});
+    }
+
+    /**
+     * Helper method to build a copy of a subtree without a key. A child
+     * left with a single entry is folded back into its parent, so the trie
+     * stays as shallow as it would be had the key never been added.
+     *
+     * @param node the root of the subtree, possibly null
+     * @param shift the number of hash bits consumed above the subtree
+     * @param hash the spread hash code of the key
+     * @param key the key to remove
+     * @param change records the removed value
+     * @return the root of the new subtree, null if it became empty, or node
+     * itself if the key was not there
+     */
+    private static Object remove(Object node, int shift, int hash,
+                                 Object key, Change change) {
+        if (node == null) {
+            return null;
+        } else if (node instanceof CollisionNode) {
+            CollisionNode collisionNode = (CollisionNode) node;
+            Object[] array = collisionNode.array;
+            for (int i = 0; collisionNode.hash == hash && i < array.length;
+                    i += 2) {
+                if (array[i].equals(key)) {
+                    change.old = array[i + 1];
+                    if (array.length == 4) {
+                        // Leave the other entry inline for the parent to fold
+                        int other = i == 0 ? 2 : 0;
+                        return new BitmapNode(bitFor(hash, shift),
+                                new Object[] {array[other],
+                                    array[other + 1]});
+                    }
+                    return new CollisionNode(hash, removed(array, i));
+                }
+            }
+            return node;
+        }
+        BitmapNode bitmapNode = (BitmapNode) node;
+        int bit = bitFor(hash, shift);
+        if ((bitmapNode.bitmap & bit) == 0) {
+            return node;
+        }
+        int ind = 2 * Integer.bitCount(bitmapNode.bitmap & (bit - 1));
+        Object[] array = bitmapNode.array;
+        Object k = array[ind];
+        if (k == null) {
+            Object child = remove(array[ind + 1], shift + BITS, hash, key,
+                    change);
+            if (child == array[ind + 1]) {
+                return node;
+            } else if (child == null) {
+                return withoutBranch(bitmapNode, bit, ind);
+            } else if (isSingleEntry(child)) {
+                // Fold the child's last entry into this node
+                Object[] copy = array.clone();
+                copy[ind] = ((BitmapNode) child).array[0];
+                copy[ind + 1] = ((BitmapNode) child).array[1];
+                return new BitmapNode(bitmapNode.bitmap, copy);
+            }
+            return new BitmapNode(bitmapNode.bitmap,
+                    replaced(array, ind + 1, child));
+        } else if (k.equals(key)) {
+            change.old = array[ind + 1];
+            return withoutBranch(bitmapNode, bit, ind);
+        }
+        return node;
+    }
+
+    /**
+     * Helper method to build a copy of a bitmap node without one branch.
+     *
+     * @param node the node to copy
+     * @param bit the bit of the branch
+     * @param ind the index of the branch's key slot
+     * @return the copy, or null if no branch is left
+     */
+    private static Object withoutBranch(BitmapNode node, int bit, int ind) {
+        if (node.bitmap == bit) {
+            return null;
+        }
+        return new BitmapNode(node.bitmap & ~bit, removed(node.array, ind));
+    }
+
+    /**
+     * Helper method to determine whether a node holds exactly one entry,
+     * stored inline.
+     *
+     * @param node the node in question
+     * @return whether the node can be folded into its parent
+     */
+    private static boolean isSingleEntry(Object node) {
+        return node instanceof BitmapNode
+                && ((BitmapNode) node).array.length == 2
+                && ((BitmapNode) node).array[0] != null;
+    }
+
+    /**
+     * Helper method to collect the keys and values below a node, in
+     * alternating order.
+     *
+     * @param node the node to start from, possibly null
+     * @param entries the list to append keys and values to
+     */
+    private static void collect(Object node, LinkedList<Object> entries) {
+        if (node instanceof BitmapNode) {
+            Object[] array = ((BitmapNode) node).array;
+            for (int i = 0; i < array.length; i += 2) {
+                collectSlot(array[i], array[i + 1], entries);
+            }
+        } else if (node != null) {
+            Object[] array = ((CollisionNode) node).array;
+            for (int i = 0; i < array.length; i += 2) {
+                entries.addLast(array[i]);
+                entries.addLast(array[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Helper method to collect the keys and values of one branch of a
+     * bitmap node.
+     *
+     * @param key the key slot of the branch, null for a child node
+     * @param value the value slot of the branch, or the child node
+     * @param entries the list to append keys and values to
+     */
+    private static void collectSlot(Object key, Object value,
+                                    LinkedList<Object> entries) {
+        if (key == null) {
+            collect(value, entries);
+        } else {
+            entries.addLast(key);
+            entries.addLast(value);
+        }
+    }
+
+    /**
+     * Helper method to copy an array with one slot replaced.
+     *
+     * @param array the array to copy
+     * @param ind the slot to replace
+     * @param item the new content of the slot
+     * @return the copy
+     */
+    private static Object[] replaced(Object[] array, int ind, Object item) {
+        Object[] copy = array.clone();
+        copy[ind] = item;
+        return copy;
+    }
+
+    /**
+     * Helper method to copy an array with a key and value inserted.
+     *
+     * @param array the array to copy
+     * @param ind the index to insert the key at
+     * @param key the key to insert
+     * @param value the value to insert after it
+     * @return the copy, two slots longer
+     */
+    private static Object[] inserted(Object[] array, int ind, Object key,
+                                     Object value) {
+        Object[] copy = new Object[array.length + 2];
+        System.arraycopy(array, 0, copy, 0, ind);
+        copy[ind] = key;
+        copy[ind + 1] = value;
+        System.arraycopy(array, ind, copy, ind + 2, array.length - ind);
+        return copy;
+    }
+
+    /**
+     * Helper method to copy an array with a key and value taken out.
+     *
+     * @param array the array to copy
+     * @param ind the index of the key to take out
+     * @return the copy, two slots shorter
+     */
+    private static Object[] removed(Object[] array, int ind) {
+        Object[] copy = new Object[array.length - 2];
+        System.arraycopy(array, 0, copy, 0, ind);
+        System.arraycopy(array, ind + 2, copy, ind, array.length - ind - 2);
+        return copy;
+    }
+
+    /**
+     * Helper method to find the bitmap bit of a hash code at a level.
+     *
+     * @param hash the spread hash code
+     * @param shift the number of hash bits consumed above the level
+     * @return the bit of the branch the hash code belongs to
+     */
+    private static int bitFor(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Helper method to spread the high bits of a hash code into the low
+     * bits, which pick the branches near the root.
+     *
+     * @param hash the hash code of a key
+     * @return the spread hash code
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * One published version of the map: the root of its trie and its size.
+     */
+    private static final class Root {
+        private static final Root EMPTY = new Root(null, 0);
+
+        private final Object node;
+        private final int size;
+
+        /**
+         * Create a version of the map.
+         *
+         * @param node the root node, or null if the map is empty
+         * @param size the number of entries
+         */
+        private Root(Object node, int size) {
+            this.node = node;
+            this.size = size;
+        }
+    }
+
+    /**
+     * A trie node whose bitmap marks the branches it has. The array has two
+     * slots per branch in bit order: a key and its value, or null and the
+     * child node.
+     */
+    private static final class BitmapNode {
+        private final int bitmap;
+        private final Object[] array;
+
+        /**
+         * Create a bitmap node.
+         *
+         * @param bitmap the branches of the node
+         * @param array the slots of the branches
+         */
+        private BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+    }
+
+    /**
+     * A trie node holding entries whose keys have equal spread hash codes,
+     * as alternating keys and values.
+     */
+    private static final class CollisionNode {
+        private final int hash;
+        private final Object[] array;
+
+        /**
+         * Create a collision node.
+         *
+         * @param hash the spread hash code shared by the keys
+         * @param array the keys and values
+         */
+        private CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+    }
+
+    /**
+     * The outcome of a write to the trie, reused across retries of the
+     * write.
+     */
+    private static final class Change {
+        private Object old;
+        private int added;
+
+        /**
+         * Forgets the outcome of a previous attempt.
+         */
+        private void reset() {
+            old = null;
+            added = 0;
+        }
+    }
+
+    /**
+     * An immutable view of one version of the map.
+     */
+    private static final class Snapshot<K, V>
+            implements HashMapInterface<K, V> {
+        private final Root version;
+
+        /**
+         * Create a view of a version of the map.
+         *
+         * @param version the version to view
+         */
+        private Snapshot(Root version) {
+            this.version = version;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            throw new UnsupportedOperationException("A snapshot cannot be "
+                    + "modified.");
+        }
+
+        @Override
+        public V remove(K key) {
+            throw new UnsupportedOperationException("A snapshot cannot be "
+                    + "modified.");
+        }
+
+        @Override
+        public V get(K key) {
+            return SnapshotHashMap.get(version, key);
+        }
+
+        @Override
+        public boolean containsKey(K key) {
+            return SnapshotHashMap.containsKey(version, key);
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException("A snapshot cannot be "
+                    + "modified.");
+        }
+
+        @Override
+        public int size() {
+            return version.size;
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return SnapshotHashMap.keySet(version);
+        }
+
+        @Override
+        public List<V> values() {
+            return SnapshotHashMap.values(version);
+        }
+
+        @Override
+        public void resizeBackingTable(int length) {
+            throw new UnsupportedOperationException("A snapshot cannot be "
+                    + "modified.");
+        }
+
+        @Override
+        public LinkedList<MapEntry<K, V>>[] getTable() {
+            return SnapshotHashMap.getTable(version);
+        }
+    }
+}
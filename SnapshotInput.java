@@ -0,0 +1,172 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads the primitive records written by SnapshotOutput from a channel
+ * through a fixed buffer, so a snapshot of any size is streamed in with a
+ * constant amount of memory besides the structure being loaded.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class SnapshotInput {
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Create an input reading from the given channel through a buffer of
+     * {@code SnapshotOutput.DEFAULT_BUFFER_SIZE} bytes.
+     *
+     * @param channel the channel to read from
+     * @throws IllegalArgumentException if channel is null
+     */
+    public SnapshotInput(ReadableByteChannel channel) {
+        this(channel, SnapshotOutput.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create an input reading from the given channel.
+     *
+     * @param channel the channel to read from
+     * @param bufferSize the size of the buffer, of at least 16 bytes
+     * @throws IllegalArgumentException if channel is null or bufferSize is
+     * less than 16
+     */
+    public SnapshotInput(ReadableByteChannel channel, int bufferSize) {
+        if (channel == null || bufferSize < 16) {
+            throw new IllegalArgumentException("Input channel is null or the "
+                    + "buffer is smaller than 16 bytes, please use a valid "
+                    + "input.");
+        }
+        this.channel = channel;
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+        buffer.flip();
+    }
+
+    /**
+     * Reads a single byte.
+     *
+     * @return the byte that was read
+     * @throws IOException if the channel cannot be read or ends too early
+     */
+    public byte readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    /**
+     * Reads an int written as 4 bytes.
+     *
+     * @return the int that was read
+     * @throws IOException if the channel cannot be read or ends too early
+     */
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    /**
+     * Reads a long written as 8 bytes.
+     *
+     * @return the long that was read
+     * @throws IOException if the channel cannot be read or ends too early
+     */
+    public long readLong() throws IOException {
+        require(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    /**
+     * Reads an unsigned varint of 1 to 5 bytes.
+     *
+     * @return the int that was read
+     * @throws IOException if the channel cannot be read, ends too early or
+     * the varint is too long
+     */
+    public int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed snapshot: varint is too long.");
+    }
+
+    /**
+     * Reads an unsigned varint of 1 to 10 bytes.
+     *
+     * @return the long that was read
+     * @throws IOException if the channel cannot be read, ends too early or
+     * the varint is too long
+     */
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed snapshot: varint is too long.");
+    }
+
+    /**
+     * Reads the given number of bytes.
+     *
+     * @param count the number of bytes to read
+     * @return the bytes that were read
+     * @throws IOException if the channel cannot be read, ends too early or
+     * count is negative
+     */
+    public byte[] readBytes(int count) throws IOException {
+        if (count < 0) {
+            throw new IOException("Malformed snapshot: negative byte count.");
+        }
+        byte[] bytes = new byte[count];
+        int offset = 0;
+        while (offset < count) {
+            if (!buffer.hasRemaining()) {
+                fill();
+            }
+            int n = Math.min(buffer.remaining(), count - offset);
+            buffer.get(bytes, offset, n);
+            offset += n;
+        }
+        return bytes;
+    }
+
+    /**
+     * Helper method to make sure the buffer holds at least a whole record,
+     * reading more from the channel if not.
+     *
+     * @param bytes the size of the record
+     * @throws IOException if the channel cannot be read or ends too early
+     */
+    private void require(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            fill();
+        }
+    }
+
+    /**
+     * Helper method to read more bytes from the channel into the buffer,
+     * keeping those not consumed yet.
+     *
+     * @throws IOException if the channel cannot be read or has ended
+     */
+    private void fill() throws IOException {
+        buffer.compact();
+        int read = channel.read(buffer);
+        buffer.flip();
+        if (read == -1) {
+            throw new EOFException("The snapshot ended unexpectedly.");
+        }
+    }
+}
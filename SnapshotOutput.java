@@ -0,0 +1,172 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes the primitive records of a snapshot to a channel through a fixed
+ * buffer, so a snapshot of any size is streamed out with a constant amount
+ * of memory.
+ *
+ * Fixed-width numbers are written big-endian. Varints are written seven bits
+ * at a time, lowest bits first, with the high bit of each byte set if more
+ * bytes follow.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class SnapshotOutput {
+
+    /**
+     * The size of the buffer used when none is given.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Create an output writing to the given channel through a buffer of
+     * {@code DEFAULT_BUFFER_SIZE} bytes.
+     *
+     * @param channel the channel to write to
+     * @throws IllegalArgumentException if channel is null
+     */
+    public SnapshotOutput(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create an output writing to the given channel.
+     *
+     * @param channel the channel to write to
+     * @param bufferSize the size of the buffer, of at least 16 bytes
+     * @throws IllegalArgumentException if channel is null or bufferSize is
+     * less than 16
+     */
+    public SnapshotOutput(WritableByteChannel channel, int bufferSize) {
+        if (channel == null || bufferSize < 16) {
+            throw new IllegalArgumentException("Input channel is null or the "
+                    + "buffer is smaller than 16 bytes, please use a valid "
+                    + "input.");
+        }
+        this.channel = channel;
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param value the byte to write
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeByte(int value) throws IOException {
+        ensureRoom(1);
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes an int as 4 bytes.
+     *
+     * @param value the int to write
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeInt(int value) throws IOException {
+        ensureRoom(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    /**
+     * Writes a long as 8 bytes.
+     *
+     * @param value the long to write
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeLong(long value) throws IOException {
+        ensureRoom(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Writes an int as an unsigned varint of 1 to 5 bytes.
+     *
+     * @param value the int to write
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeVarInt(int value) throws IOException {
+        ensureRoom(5);
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes a long as an unsigned varint of 1 to 10 bytes.
+     *
+     * @param value the long to write
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeVarLong(long value) throws IOException {
+        ensureRoom(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes an array of bytes as they are. Their count is not written.
+     *
+     * @param bytes the bytes to write
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int count = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Writes everything buffered so far to the channel. The channel itself
+     * is left open.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * Helper method to make sure the buffer has room for a record, writing
+     * it out to the channel if not.
+     *
+     * @param bytes the size of the record
+     * @throws IOException if the channel cannot be written
+     */
+    private void ensureRoom(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    /**
+     * Helper method to write the whole buffer to the channel and empty it.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
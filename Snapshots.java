@@ -0,0 +1,319 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+
+/**
+ * Saves HashMaps, AVL trees and BSTs to compact binary snapshots and loads
+ * them back, streaming through NIO channels.
+ *
+ * A snapshot starts with a magic number, a format version, the kind of
+ * structure and the number of elements as a varint, followed by the
+ * elements written by pluggable ElementCodecs. A HashMap is written as a
+ * flat sequence of keys and values, read straight out of its table. A tree
+ * is written in sorted order and loaded with a linear-time balanced build,
+ * so loading neither compares nor rebalances anything. Neither saving nor
+ * loading copies the structure into an intermediate collection.
+ *
+ * The methods write to and read from the current position of the channel,
+ * and leave the channel open. Reading is buffered, so it may consume bytes
+ * past the end of the snapshot.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public final class Snapshots {
+
+    private static final int MAGIC = 0x534E4150;
+    private static final int VERSION = 1;
+    private static final int HASH_MAP = 1;
+    private static final int AVL_TREE = 2;
+    private static final int BST_TREE = 3;
+
+    /**
+     * This class only holds static methods and is never instantiated.
+     */
+    private Snapshots() {
+    }
+
+    /**
+     * Writes a snapshot of a HashMap to a channel.
+     *
+     * @param channel the channel to write to
+     * @param map the map to save
+     * @param keyCodec the codec writing the keys
+     * @param valueCodec the codec writing the values
+     * @param <K> the type of key in the map
+     * @param <V> the type of value in the map
+     * @throws IllegalArgumentException if any argument is null
+     * @throws IOException if the channel cannot be written
+     */
+    public static <K, V> void writeHashMap(WritableByteChannel channel,
+            HashMap<K, V> map, ElementCodec<K> keyCodec,
+            ElementCodec<V> valueCodec) throws IOException {
+        if (channel == null || map == null || keyCodec == null
+                || valueCodec == null) {
+            throw new IllegalArgumentException("Input channel, map and/or "
+                    + "codec is null, please use a valid input.");
+        }
+        SnapshotOutput out = new SnapshotOutput(channel);
+        writeHeader(out, HASH_MAP, map.size());
+        for (MapEntry<K, V> entry : map.entrySet()) {
+            keyCodec.write(out, entry.getKey());
+            valueCodec.write(out, entry.getValue());
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a snapshot written by {@code writeHashMap}. The map is created
+     * large enough to take every entry without regrowing.
+     *
+     * @param channel the channel to read from
+     * @param keyCodec the codec reading the keys
+     * @param valueCodec the codec reading the values
+     * @param <K> the type of key in the map
+     * @param <V> the type of value in the map
+     * @return the loaded map
+     * @throws IllegalArgumentException if any argument is null
+     * @throws IOException if the channel cannot be read, or does not hold a
+     * well-formed HashMap snapshot
+     */
+    public static <K, V> HashMap<K, V> readHashMap(
+            ReadableByteChannel channel, ElementCodec<K> keyCodec,
+            ElementCodec<V> valueCodec) throws IOException {
+        if (channel == null || keyCodec == null || valueCodec == null) {
+            throw new IllegalArgumentException("Input channel and/or codec "
+                    + "is null, please use a valid input.");
+        }
+        SnapshotInput in = new SnapshotInput(channel);
+        int count = readHeader(in, HASH_MAP);
+        HashMap<K, V> map = new HashMap<>(
+                (int) (count / HashMapInterface.MAX_LOAD_FACTOR) + 1);
+        for (int i = 0; i < count; i++) {
+            K key = keyCodec.read(in);
+            V value = valueCodec.read(in);
+            if (key == null || value == null) {
+                throw new IOException("Malformed snapshot: a codec read a "
+                        + "null key or value.");
+            }
+            map.put(key, value);
+        }
+        return map;
+    }
+
+    /**
+     * Writes a snapshot of an AVL tree to a channel, in sorted order.
+     *
+     * @param channel the channel to write to
+     * @param tree the tree to save
+     * @param codec the codec writing the data
+     * @param <T> the type of data in the tree
+     * @throws IllegalArgumentException if any argument is null
+     * @throws IOException if the channel cannot be written
+     */
+    public static <T extends Comparable<? super T>> void writeAVL(
+            WritableByteChannel channel, AVL<T> tree, ElementCodec<T> codec)
+            throws IOException {
+        if (channel == null || tree == null || codec == null) {
+            throw new IllegalArgumentException("Input channel, tree and/or "
+                    + "codec is null, please use a valid input.");
+        }
+        writeSorted(channel, AVL_TREE, tree.size(), tree.spliterator(),
+                codec);
+    }
+
+    /**
+     * Reads a snapshot written by {@code writeAVL}, building a balanced tree
+     * in linear time.
+     *
+     * @param channel the channel to read from
+     * @param codec the codec reading the data
+     * @param <T> the type of data in the tree
+     * @return the loaded tree
+     * @throws IllegalArgumentException if any argument is null
+     * @throws IOException if the channel cannot be read, or does not hold a
+     * well-formed AVL snapshot
+     */
+    public static <T extends Comparable<? super T>> AVL<T> readAVL(
+            ReadableByteChannel channel, ElementCodec<T> codec)
+            throws IOException {
+        if (channel == null || codec == null) {
+            throw new IllegalArgumentException("Input channel and/or codec "
+                    + "is null, please use a valid input.");
+        }
+        SnapshotInput in = new SnapshotInput(channel);
+        int count = readHeader(in, AVL_TREE);
+        try {
+            return AVL.fromSorted(elements(in, codec, count), count);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes a snapshot of a BST to a channel, in sorted order.
+     *
+     * @param channel the channel to write to
+     * @param tree the tree to save
+     * @param codec the codec writing the data
+     * @param <T> the type of data in the tree
+     * @throws IllegalArgumentException if any argument is null
+     * @throws IOException if the channel cannot be written
+     */
+    public static <T extends Comparable<? super T>> void writeBST(
+            WritableByteChannel channel, BST<T> tree, ElementCodec<T> codec)
+            throws IOException {
+        if (channel == null || tree == null || codec == null) {
+            throw new IllegalArgumentException("Input channel, tree and/or "
+                    + "codec is null, please use a valid input.");
+        }
+        writeSorted(channel, BST_TREE, tree.size(), tree.spliterator(),
+                codec);
+    }
+
+    /**
+     * Reads a snapshot written by {@code writeBST}, building a balanced tree
+     * in linear time.
+     *
+     * @param channel the channel to read from
+     * @param codec the codec reading the data
+     * @param <T> the type of data in the tree
+     * @return the loaded tree
+     * @throws IllegalArgumentException if any argument is null
+     * @throws IOException if the channel cannot be read, or does not hold a
+     * well-formed BST snapshot
+     */
+    public static <T extends Comparable<? super T>> BST<T> readBST(
+            ReadableByteChannel channel, ElementCodec<T> codec)
+            throws IOException {
+        if (channel == null || codec == null) {
+            throw new IllegalArgumentException("Input channel and/or codec "
+                    + "is null, please use a valid input.");
+        }
+        SnapshotInput in = new SnapshotInput(channel);
+        int count = readHeader(in, BST_TREE);
+        try {
+            return BST.fromSorted(elements(in, codec, count), count);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Helper method to write a snapshot of a tree from its sorted
+     * spliterator.
+     *
+     * @param channel the channel to write to
+     * @param kind the kind of tree
+     * @param count the number of elements in the tree
+     * @param data the spliterator over the tree in sorted order
+     * @param codec the codec writing the data
+     * @param <T> the type of data in the tree
+     * @throws IOException if the channel cannot be written
+     */
+    private static <T> void writeSorted(WritableByteChannel channel, int kind,
+            int count, Spliterator<T> data, ElementCodec<T> codec)
+            throws IOException {
+        SnapshotOutput out = new SnapshotOutput(channel);
+        writeHeader(out, kind, count);
+        try {
+            data.forEachRemaining(item -> {
+                try {
+                    codec.write(out, item);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    /**
+     * Helper method to read the elements of a snapshot lazily, one per call
+     * to {@code next}. Read errors are thrown as UncheckedIOException, since
+     * an Iterator cannot throw IOException.
+     *
+     * @param in the snapshot being read
+     * @param codec the codec reading the elements
+     * @param count the number of elements in the snapshot
+     * @param <T> the type of the elements
+     * @return an iterator over the elements
+     */
+    private static <T> Iterator<T> elements(SnapshotInput in,
+            ElementCodec<T> codec, int count) {
+        return new Iterator<T>() {
+            private int remaining = count;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public T next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException("Every element of the "
+                            + "snapshot has been read.");
+                }
+                remaining--;
+                try {
+                    return codec.read(in);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Helper method to write the header of a snapshot.
+     *
+     * @param out the snapshot being written
+     * @param kind the kind of structure
+     * @param count the number of elements
+     * @throws IOException if the channel cannot be written
+     */
+    private static void writeHeader(SnapshotOutput out, int kind, int count)
+            throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(kind);
+        out.writeVarInt(count);
+    }
+
+    /**
+     * Helper method to read and check the header of a snapshot.
+     *
+     * @param in the snapshot being read
+     * @param kind the kind of structure expected
+     * @return the number of elements in the snapshot
+     * @throws IOException if the channel cannot be read or the header does
+     * not match
+     */
+    private static int readHeader(SnapshotInput in, int kind)
+            throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Malformed snapshot: bad magic number.");
+        } else if (in.readByte() != VERSION) {
+            throw new IOException("Unsupported snapshot version.");
+        } else if (in.readByte() != kind) {
+            throw new IOException("The snapshot holds a different kind of "
+                    + "structure.");
+        }
+        int count = in.readVarInt();
+        if (count < 0) {
+            throw new IOException("Malformed snapshot: negative count.");
+        }
+        return count;
+    }
+}
@@ -0,0 +1,375 @@
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe implementation of HashMap using external chaining.
+ *
+ * Writers lock only the stripe that owns the bucket they modify, where
+ * bucket {@code i} belongs to stripe {@code i % stripes}, so writers to
+ * different stripes proceed in parallel. Readers never lock: the table and
+ * every chain link are published through volatile references, so
+ * {@code get} and {@code containsKey} simply walk whatever chain is
+ * currently installed.
+ *
+ * Resizing takes every stripe lock, which holds off writers, but copies the
+ * chains into fresh nodes instead of relinking the old ones. Readers that
+ * are still walking the old table therefore keep seeing a complete map
+ * until the new table is published.
+ *
+ * Iteration through {@code keySet}, {@code values} and {@code getTable} is
+ * weakly consistent: it reflects some state of each bucket at or after the
+ * start of the call.
+ *
+ * The default {@code putIfAbsent}, {@code computeIfAbsent}, {@code compute}
+ * and {@code merge} of HashMapInterface are built from separate calls, so
+ * they are not atomic on this map.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class StripedHashMap<K, V> implements HashMapInterface<K, V> {
+
+    /**
+     * The number of lock stripes used when none is given.
+     */
+    public static final int DEFAULT_STRIPES = 16;
+
+    private volatile AtomicReferenceArray<Node<K, V>> backingTable;
+    private final AtomicInteger size;
+    private final ReentrantLock[] locks;
+
+    /**
+     * Create a hash map with no entries. The backing array has an initial
+     * capacity of {@code INITIAL_CAPACITY} and {@code DEFAULT_STRIPES} lock
+     * stripes.
+     */
+    public StripedHashMap() {
+        this(INITIAL_CAPACITY, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Create a hash map with no entries. The backing array has an initial
+     * capacity of {@code initialCapacity}.
+     *
+     * @param initialCapacity initial capacity of the backing array
+     * @param stripes the number of locks guarding the buckets, which bounds
+     * the number of writers that can make progress at once
+     * @throws IllegalArgumentException if either argument is non-positive
+     */
+    public StripedHashMap(int initialCapacity, int stripes) {
+        if (initialCapacity <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("The initial capacity and the "
+                    + "number of stripes must be positive, please use a valid "
+                    + "input.");
+        }
+        backingTable = new AtomicReferenceArray<>(initialCapacity);
+        size = new AtomicInteger();
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (value == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or value is null"
+                    + ", please use a valid input.");
+        }
+        int hash = key.hashCode();
+        AtomicReferenceArray<Node<K, V>> table = backingTable;
+        // If the load factor will be exceeded from this add, resize the table
+        if (((size.get() + 1) / ((double) table.length())) > MAX_LOAD_FACTOR) {
+            growFrom(table);
+        }
+        while (true) {
+            table = backingTable;
+            int ind = indexFor(hash, table.length());
+            ReentrantLock lock = locks[ind % locks.length];
+            lock.lock();
+            try {
+                // A resize may have been published while waiting on the lock
+                if (table != backingTable) {
+                    continue;
+                }
+                Node<K, V> head = table.get(ind);
+                for (Node<K, V> cur = head; cur != null; cur = cur.next) {
+                    if (cur.hash == hash && cur.key.equals(key)) {
+                        V rep = cur.value;
+                        cur.value = value;
+                        return rep;
+                    }
+                }
+                // Add the new entry to the front of the chain
+                table.set(ind, new Node<>(hash, key, value, head));
+                size.incrementAndGet();
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        int hash = key.hashCode();
+        while (true) {
+            AtomicReferenceArray<Node<K, V>> table = backingTable;
+            int ind = indexFor(hash, table.length());
+            ReentrantLock lock = locks[ind % locks.length];
+            lock.lock();
+            try {
+                if (table != backingTable) {
+                    continue;
+                }
+                Node<K, V> prev = null;
+                for (Node<K, V> cur = table.get(ind); cur != null;
+                        cur = cur.next) {
+                    if (cur.hash == hash && cur.key.equals(key)) {
+                        // Readers standing on cur can still follow cur.next
+                        if (prev == null) {
+                            table.set(ind, cur.next);
+                        } else {
+                            prev.next = cur.next;
+                        }
+                        size.decrementAndGet();
+                        return cur.value;
+                    }
+                    prev = cur;
+                }
+                throw new NoSuchElementException("The input key does not have "
+                        + "a corresponding value in this map.");
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        Node<K, V> node = findNode(key);
+        if (node == null) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        return findNode(key) != null;
+    }
+
+    @Override
+    public void clear() {
+        lockAll();
+        try {
+            backingTable = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+            size.set(0);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> set = new HashSet<>();
+        AtomicReferenceArray<Node<K, V>> table = backingTable;
+        for (int i = 0; i < table.length(); i++) {
+            for (Node<K, V> cur = table.get(i); cur != null; cur = cur.next) {
+                set.add(cur.key);
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public List<V> values() {
+        LinkedList<V> list = new LinkedList<>();
+        AtomicReferenceArray<Node<K, V>> table = backingTable;
+        for (int i = 0; i < table.length(); i++) {
+            for (Node<K, V> cur = table.get(i); cur != null; cur = cur.next) {
+                list.addLast(cur.value);
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void resizeBackingTable(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("The input length is not "
+                    + "positive and therefore is invalid. Please use an input "
+                    + "greater than 0.");
+        }
+        lockAll();
+        try {
+            rehash(length);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The returned array is a weakly consistent copy, since the live table
+     * is not made of {@code LinkedList} chains.
+     */
+    @Override
+    public LinkedList<MapEntry<K, V>>[] getTable() {
+        AtomicReferenceArray<Node<K, V>> table = backingTable;
+        LinkedList<MapEntry<K, V>>[] copy = ((LinkedList<MapEntry<K, V>>[])
+                new LinkedList[table.length()]);
+        for (int i = 0; i < table.length(); i++) {
+            Node<K, V> cur = table.get(i);
+            if (cur != null) {
+                copy[i] = new LinkedList<>();
+                for (; cur != null; cur = cur.next) {
+                    copy[i].addLast(new MapEntry<>(cur.key, cur.value));
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Walks the chain of the key's bucket in the current table without
+     * taking any lock.
+     *
+     * @param key the key to search for
+     * @return the node holding the key, or null if the key is not in the map
+     */
+    private Node<K, V> findNode(Object key) {
+        int hash = key.hashCode();
+        AtomicReferenceArray<Node<K, V>> table = backingTable;
+        Node<K, V> cur = table.get(indexFor(hash, table.length()));
+        while (cur != null) {
+            if (cur.hash == hash && cur.key.equals(key)) {
+                return cur;
+            }
+            cur = cur.next;
+        }
+        return null;
+    }
+
+    /**
+     * Regrows the table to 2 * old length + 1, unless another writer has
+     * already replaced the table that was found to be too full.
+     *
+     * @param table the table that exceeded the load factor
+     */
+    private void growFrom(AtomicReferenceArray<Node<K, V>> table) {
+        lockAll();
+        try {
+            if (table == backingTable) {
+                rehash((2 * table.length()) + 1);
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Copies every entry into a new table of the given length and publishes
+     * it. The old chains are left untouched for readers still using them.
+     * Must be called while holding every stripe lock.
+     *
+     * @param length the length of the new table
+     */
+    private void rehash(int length) {
+        AtomicReferenceArray<Node<K, V>> oldTable = backingTable;
+        AtomicReferenceArray<Node<K, V>> newTable =
+                new AtomicReferenceArray<>(length);
+        for (int i = 0; i < oldTable.length(); i++) {
+            for (Node<K, V> cur = oldTable.get(i); cur != null;
+                    cur = cur.next) {
+                int ind = indexFor(cur.hash, length);
+                newTable.set(ind, new Node<>(cur.hash, cur.key, cur.value,
+                        newTable.get(ind)));
+            }
+        }
+        backingTable = newTable;
+    }
+
+    /**
+     * Acquires every stripe lock, always in the same order.
+     */
+    private void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Releases every stripe lock.
+     */
+    private void unlockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Compresses a hash code into an index of a table of the given length.
+     * Taking the absolute value of the remainder keeps the index valid even
+     * for {@code Integer.MIN_VALUE}.
+     *
+     * @param hash the hash code to compress
+     * @param length the length of the table
+     * @return the bucket of the hash code
+     */
+    private static int indexFor(int hash, int length) {
+        return Math.abs(hash % length);
+    }
+
+    /**
+     * A link of an external chain. The key and hash never change, while the
+     * value and the next link are volatile so that lock-free readers always
+     * observe fully published writes.
+     */
+    private static final class Node<K, V> {
+        private final int hash;
+        private final K key;
+        private volatile V value;
+        private volatile Node<K, V> next;
+
+        /**
+         * Create a chain link.
+         *
+         * @param hash the hash code of the key
+         * @param key the key of the entry
+         * @param value the value of the entry
+         * @param next the rest of the chain
+         */
+        private Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An implementation of HashMap in the style of SwissTable, which probes a
+ * whole group of slots at once through a parallel array of control bytes.
+ *
+ * Every slot has a control byte that is either EMPTY, DELETED (a tombstone)
+ * or, for a full slot, a 7-bit tag taken from the hash code of its key. The
+ * slots are split into aligned groups of eight, whose control bytes are
+ * read as a single long and compared against the tag of the key with a few
+ * word-wide bit operations. Only slots whose tag matches are ever compared
+ * with {@code equals}, so a lookup for an absent key usually touches just
+ * the control bytes of one group and stops at its first EMPTY byte. Groups
+ * are probed quadratically, which visits every group since the number of
+ * groups is a power of two.
+ *
+ * A removed entry only leaves a tombstone behind if its group has no EMPTY
+ * byte; otherwise no probe can have passed through the group, and the slot
+ * becomes EMPTY again.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class SwissHashMap<K, V> implements HashMapInterface<K, V> {
+
+    /**
+     * The number of slots probed at once.
+     */
+    public static final int GROUP_SIZE = 8;
+
+    /**
+     * The fraction of slots that may be full or tombstones before the table
+     * is rebuilt. Probing whole groups keeps probe sequences short even at
+     * this load.
+     */
+    public static final double MAX_SWISS_LOAD_FACTOR = 0.875;
+
+    private static final byte EMPTY = (byte) 0x80;
+    private static final byte DELETED = (byte) 0xFE;
+    private static final long LSB = 0x0101010101010101L;
+    private static final long MSB = 0x8080808080808080L;
+    private static final VarHandle GROUP = MethodHandles
+            .byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private byte[] control;
+    private Object[] keys;
+    private Object[] values;
+    private int size;
+    private int tombstones;
+
+    /**
+     * Create a hash map with no entries. The backing arrays have an initial
+     * capacity of at least {@code INITIAL_CAPACITY}.
+     */
+    public SwissHashMap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Create a hash map with no entries. The backing arrays have an initial
+     * capacity of at least {@code initialCapacity}, rounded up to a power of
+     * two number of groups.
+     *
+     * @param initialCapacity initial capacity of the backing arrays
+     * @throws IllegalArgumentException if initialCapacity is non-positive
+     */
+    public SwissHashMap(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("The initial capacity must be "
+                    + "positive, please use a valid input.");
+        }
+        allocate(initialCapacity);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (value == null || key == null) {
+            throw new IllegalArgumentException("Input key and/or value is null"
+                    + ", please use a valid input.");
+        }
+        int hash = mix(key.hashCode());
+        int slot = findSlot(hash, key);
+        if (slot != -1) {
+            V rep = (V) values[slot];
+            values[slot] = value;
+            return rep;
+        }
+        int limit = (int) (keys.length * MAX_SWISS_LOAD_FACTOR);
+        if (size + 1 > limit) {
+            rehash(2 * keys.length);
+        } else if (size + tombstones + 1 > limit) {
+            // Mostly tombstones, so clearing them out makes enough room
+            rehash(keys.length);
+        }
+        insert(hash, key, value);
+        size++;
+        return null;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        int slot = findSlot(mix(key.hashCode()), key);
+        if (slot == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        V rem = (V) values[slot];
+        long group = (long) GROUP.get(control, slot & -GROUP_SIZE);
+        if (matchEmpty(group) != 0) {
+            control[slot] = EMPTY;
+        } else {
+            control[slot] = DELETED;
+            tombstones++;
+        }
+        keys[slot] = null;
+        values[slot] = null;
+        size--;
+        return rem;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        int slot = findSlot(mix(key.hashCode()), key);
+        if (slot == -1) {
+            throw new NoSuchElementException("The input key does not have a "
+                    + "corresponding value in this map.");
+        }
+        return (V) values[slot];
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Input key is null, please "
+                    + "use a valid input.");
+        }
+        return findSlot(mix(key.hashCode()), key) != -1;
+    }
+
+    @Override
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> set = new HashSet<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (control[i] >= 0) {
+                set.add((K) keys[i]);
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public List<V> values() {
+        LinkedList<V> list = new LinkedList<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (control[i] >= 0) {
+                list.addLast((V) values[i]);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The length is rounded up to a power of two number of groups, and
+     * tombstones are dropped.
+     *
+     * @throws IllegalArgumentException if length is non-positive or smaller
+     * than the number of entries in the map
+     */
+    @Override
+    public void resizeBackingTable(int length) {
+        if (length <= 0 || length < size) {
+            throw new IllegalArgumentException("The input length is not "
+                    + "positive or cannot hold every entry of the map, and "
+                    + "therefore is invalid. Please use an input of at least "
+                    + "max(1, size).");
+        }
+        rehash(length);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Every full slot is reported as a chain holding exactly one entry, and
+     * empty slots or tombstones are reported as null.
+     */
+    @Override
+    public LinkedList<MapEntry<K, V>>[] getTable() {
+        LinkedList<MapEntry<K, V>>[] table = ((LinkedList<MapEntry<K, V>>[])
+                new LinkedList[keys.length]);
+        for (int i = 0; i < keys.length; i++) {
+            if (control[i] >= 0) {
+                table[i] = new LinkedList<>();
+                table[i].addFirst(new MapEntry<>((K) keys[i], (V) values[i]));
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Helper method to probe the groups of a key for a slot holding it.
+     * The probe stops at the first group with an EMPTY byte, since an insert
+     * would have used that slot rather than going on.
+     *
+     * @param hash the mixed hash code of the key
+     * @param key the key to search for
+     * @return the slot holding the key, or -1 if it is not in the map
+     */
+    private int findSlot(int hash, Object key) {
+        int mask = (keys.length / GROUP_SIZE) - 1;
+        int ind = (hash >>> 7) & mask;
+        for (int step = 1; step <= mask + 1; step++) {
+            int base = ind * GROUP_SIZE;
+            long group = (long) GROUP.get(control, base);
+            for (long match = matchTag(group, hash & 0x7F); match != 0;
+                    match &= match - 1) {
+                int slot = base + (Long.numberOfTrailingZeros(match) >>> 3);
+                if (keys[slot].equals(key)) {
+                    return slot;
+                }
+            }
+            if (matchEmpty(group) != 0) {
+                return -1;
+            }
+            ind = (ind + step) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to store an entry whose key is not in the map in the
+     * first EMPTY or DELETED slot of its probe sequence.
+     *
+     * @param hash the mixed hash code of the key
+     * @param key the key of the entry
+     * @param value the value of the entry
+     */
+    private void insert(int hash, Object key, Object value) {
+        int mask = (keys.length / GROUP_SIZE) - 1;
+        int ind = (hash >>> 7) & mask;
+        for (int step = 1; true; step++) {
+            int base = ind * GROUP_SIZE;
+            long free = (long) GROUP.get(control, base) & MSB;
+            if (free != 0) {
+                int slot = base + (Long.numberOfTrailingZeros(free) >>> 3);
+                if (control[slot] == DELETED) {
+                    tombstones--;
+                }
+                control[slot] = (byte) (hash & 0x7F);
+                keys[slot] = key;
+                values[slot] = value;
+                return;
+            }
+            ind = (ind + step) & mask;
+        }
+    }
+
+    /**
+     * Helper method to move every entry into a new table of at least the
+     * given length, dropping every tombstone.
+     *
+     * @param length the minimum number of slots of the new table
+     */
+    private void rehash(int length) {
+        byte[] oldControl = control;
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldControl[i] >= 0) {
+                insert(mix(oldKeys[i].hashCode()), oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Helper method to allocate an empty table of a power of two number of
+     * groups, with at least the given number of slots.
+     *
+     * @param length the minimum number of slots
+     */
+    private void allocate(int length) {
+        int groups = (length + GROUP_SIZE - 1) / GROUP_SIZE;
+        groups = groups == 1 ? 1 : Integer.highestOneBit(groups - 1) << 1;
+        control = new byte[groups * GROUP_SIZE];
+        Arrays.fill(control, EMPTY);
+        keys = new Object[groups * GROUP_SIZE];
+        values = new Object[groups * GROUP_SIZE];
+        tombstones = 0;
+    }
+
+    /**
+     * Helper method to find the full slots of a group whose tag equals the
+     * given one. Each matching slot sets the high bit of its byte. A byte
+     * just above a match may be reported too when the tags differ only in
+     * their lowest bit, which costs one extra {@code equals} call but never
+     * misses a match.
+     *
+     * @param group the control bytes of the group
+     * @param tag the 7-bit tag to match
+     * @return the high bits of the matching bytes
+     */
+    private static long matchTag(long group, int tag) {
+        long x = group ^ (LSB * tag);
+        return (x - LSB) & ~x & MSB;
+    }
+
+    /**
+     * Helper method to find the EMPTY slots of a group. EMPTY is the only
+     * control byte with the high bit set and the second lowest bit clear.
+     *
+     * @param group the control bytes of the group
+     * @return the high bits of the EMPTY bytes
+     */
+    private static long matchEmpty(long group) {
+        return group & ~(group << 6) & MSB;
+    }
+
+    /**
+     * Helper method to spread a hash code, so that both the group index
+     * taken from its high bits and the tag taken from its low 7 bits depend
+     * on every bit of the original.
+     *
+     * @param hash the hash code of a key
+     * @return the mixed hash code
+     */
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
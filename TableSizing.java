@@ -0,0 +1,43 @@
+/**
+ * A policy deciding the lengths of a hash table's backing array and how hash
+ * codes are compressed into indices of it.
+ *
+ * The two go hand in hand: mask-based indexing only works for power-of-two
+ * lengths, while plain modulo indexing spreads keys best over odd or prime
+ * lengths. Swapping the policy of a HashMap makes it possible to compare
+ * them under a particular key distribution.
+ *
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public interface TableSizing {
+
+    /**
+     * Returns the length actually used for a table when {@code length} is
+     * requested, either at construction or through
+     * {@code resizeBackingTable}.
+     *
+     * @param length the requested length, which is always positive
+     * @return the smallest length at least {@code length} that this policy
+     * can index into
+     */
+    int tableLength(int length);
+
+    /**
+     * Returns the length to regrow a table of the given length to once its
+     * load factor would be exceeded.
+     *
+     * @param length the current length of the table
+     * @return the length of the regrown table
+     */
+    int grow(int length);
+
+    /**
+     * Compresses a hash code into an index of a table of the given length.
+     *
+     * @param hash the hash code of a key
+     * @param length the length of the table, as returned by this policy
+     * @return an index in the range [0, length)
+     */
+    int indexFor(int hash, int length);
+}
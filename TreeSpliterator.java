@@ -0,0 +1,201 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * A Spliterator over the data of a binary search tree in sorted (inorder)
+ * order, so that BST and AVL can be consumed by {@code java.util.stream}
+ * without copying them into a list first.
+ *
+ * The remaining traversal is kept as a stack of segments, each of which is
+ * either a single node or a whole subtree still to be walked. Splitting hands
+ * the front half of the segments to a new spliterator, first breaking a lone
+ * subtree into its left subtree, its root and its right subtree, so a
+ * balanced tree is divided roughly in half at every split.
+ *
+ * The node classes of the trees are unrelated, so the spliterator is given
+ * functions to read the children and data of a node. The tree must not be
+ * modified while it is being traversed.
+ *
+ * @param <N> the type of node of the tree
+ * @param <T> the type of data stored in the tree
+ * @author Nick Liccini
+ * @version 1.0
+ */
+public class TreeSpliterator<N, T extends Comparable<? super T>>
+        implements Spliterator<T> {
+
+    /**
+     * The initial capacity of the segment stack, which grows as needed.
+     */
+    private static final int INITIAL_STACK = 16;
+
+    private final UnaryOperator<N> left;
+    private final UnaryOperator<N> right;
+    private final Function<N, T> data;
+    // Segments are popped from the top, so the next one is at top - 1
+    private Object[] nodes;
+    private boolean[] whole;
+    private int top;
+    private long estimate;
+    private boolean exact;
+
+    /**
+     * Create a spliterator over every node of a tree.
+     *
+     * @param root the root of the tree, or null if the tree is empty
+     * @param size the number of nodes in the tree
+     * @param left the function returning the left child of a node
+     * @param right the function returning the right child of a node
+     * @param data the function returning the data of a node
+     */
+    public TreeSpliterator(N root, int size, UnaryOperator<N> left,
+                           UnaryOperator<N> right, Function<N, T> data) {
+        this(left, right, data, INITIAL_STACK);
+        if (root != null) {
+            push(root, true);
+        }
+        estimate = size;
+        exact = true;
+    }
+
+    /**
+     * Create a spliterator with no segments, to be filled in by a split.
+     *
+     * @param left the function returning the left child of a node
+     * @param right the function returning the right child of a node
+     * @param data the function returning the data of a node
+     * @param capacity the initial capacity of the segment stack
+     */
+    private TreeSpliterator(UnaryOperator<N> left, UnaryOperator<N> right,
+                            Function<N, T> data, int capacity) {
+        this.left = left;
+        this.right = right;
+        this.data = data;
+        nodes = new Object[capacity];
+        whole = new boolean[capacity];
+        top = 0;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Input action is null, please "
+                    + "use a valid input.");
+        }
+        while (top > 0) {
+            top--;
+            N node = (N) nodes[top];
+            if (!whole[top]) {
+                consume(node, action);
+                return true;
+            }
+            // Walk down the left spine, leaving each node and its right
+            // subtree behind to be visited after its left subtree
+            while (true) {
+                N r = right.apply(node);
+                if (r != null) {
+                    push(r, true);
+                }
+                N l = left.apply(node);
+                if (l == null) {
+                    consume(node, action);
+                    return true;
+                }
+                push(node, false);
+                node = l;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (top == 1 && whole[0]) {
+            // Break the lone subtree up into right subtree, root, left subtree
+            N node = (N) nodes[0];
+            top = 0;
+            N l = left.apply(node);
+            N r = right.apply(node);
+            if (r != null) {
+                push(r, true);
+            }
+            push(node, false);
+            if (l != null) {
+                push(l, true);
+            }
+        }
+        if (top < 2) {
+            return null;
+        }
+        // Hand the segments at the front of the traversal to the prefix
+        int keep = top / 2;
+        int give = top - keep;
+        TreeSpliterator<N, T> prefix = new TreeSpliterator<>(left, right,
+                data, Math.max(INITIAL_STACK, give * 2));
+        System.arraycopy(nodes, keep, prefix.nodes, 0, give);
+        System.arraycopy(whole, keep, prefix.whole, 0, give);
+        prefix.top = give;
+        Arrays.fill(nodes, keep, top, null);
+        top = keep;
+        estimate = estimate >>> 1;
+        prefix.estimate = estimate;
+        exact = false;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | SORTED | DISTINCT | NONNULL;
+        return exact ? characteristics | SIZED : characteristics;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return null, since the data is in its natural order
+     */
+    @Override
+    public Comparator<? super T> getComparator() {
+        return null;
+    }
+
+    /**
+     * Helper method to hand the data of a node to an action, keeping the
+     * size estimate up to date.
+     *
+     * @param node the node being visited
+     * @param action the action to perform on its data
+     */
+    private void consume(N node, Consumer<? super T> action) {
+        if (estimate > 0) {
+            estimate--;
+        }
+        action.accept(data.apply(node));
+    }
+
+    /**
+     * Helper method to push a segment onto the stack, growing it if needed.
+     *
+     * @param node the node of the segment
+     * @param isWhole whether the segment is the node's whole subtree rather
+     * than the node alone
+     */
+    private void push(N node, boolean isWhole) {
+        if (top == nodes.length) {
+            nodes = Arrays.copyOf(nodes, top * 2);
+            whole = Arrays.copyOf(whole, top * 2);
+        }
+        nodes[top] = node;
+        whole[top] = isWhole;
+        top++;
+    }
+}